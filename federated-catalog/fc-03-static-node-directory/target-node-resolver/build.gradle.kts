@@ -19,4 +19,5 @@ plugins {
 
 dependencies {
     implementation(libs.edc.fc.spi.crawler)
+    implementation(libs.edc.web.spi)
 }
@@ -14,41 +14,148 @@
 
 package org.eclipse.edc.sample.extension.fc;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.eclipse.edc.crawler.spi.TargetNode;
 import org.eclipse.edc.crawler.spi.TargetNodeDirectory;
+import org.eclipse.edc.spi.monitor.Monitor;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
+/**
+ * {@link TargetNodeDirectory} holding the participants in memory. The nodes are kept in an immutable snapshot indexed by
+ * participant id and by protocol, so reads never parse nor copy anything. {@link #insert(TargetNode)} and
+ * {@link #remove(String)} build a new snapshot and swap it in (copy-on-write), readers always see a consistent one.
+ * <p>
+ * A participant without an id cannot be indexed nor crawled: it is skipped with a warning. Missing protocols are
+ * ignored, the participant is then only listed under the protocols it has.
+ */
 public class CatalogNodeDirectory implements TargetNodeDirectory {
 
-    private final ObjectMapper objectMapper;
-    private final String participantFileContent;
-
+    private final Monitor monitor;
+    private volatile Snapshot snapshot;
 
-    public CatalogNodeDirectory(ObjectMapper objectMapper, String participantFileContent) {
-        this.objectMapper = objectMapper;
-        this.participantFileContent = participantFileContent;
+    public CatalogNodeDirectory(Collection<TargetNode> targetNodes, Monitor monitor) {
+        this.monitor = monitor;
+        var nodes = new LinkedHashMap<String, TargetNode>();
+        targetNodes.stream().filter(this::hasId).forEach(node -> nodes.put(node.id(), node));
+        this.snapshot = Snapshot.of(nodes);
     }
 
     @Override
     public List<TargetNode> getAll() {
-        try {
-            return objectMapper.readValue(participantFileContent, new TypeReference<>() {});
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        return snapshot.nodes();
+    }
+
+    @Override
+    public synchronized void insert(TargetNode targetNode) {
+        if (!hasId(targetNode)) {
+            return;
         }
+        var nodes = snapshot.copy();
+        nodes.put(targetNode.id(), targetNode);
+        snapshot = Snapshot.of(nodes);
     }
 
     @Override
-    public void insert(TargetNode targetNode) {
+    public synchronized TargetNode remove(String id) {
+        if (!snapshot.byId().containsKey(id)) {
+            return null;
+        }
+        var nodes = snapshot.copy();
+        var removed = nodes.remove(id);
+        snapshot = Snapshot.of(nodes);
+        return removed;
+    }
 
+    /**
+     * Replaces the content of the directory with the given nodes. Nodes that did not change are kept as they are, so the
+     * returned {@link Diff} only lists the participants that were added, changed or removed.
+     */
+    public synchronized Diff update(Collection<TargetNode> targetNodes) {
+        var current = snapshot.byId();
+        var nodes = new LinkedHashMap<String, TargetNode>();
+        var added = new ArrayList<TargetNode>();
+        var changed = new ArrayList<TargetNode>();
+        for (var node : targetNodes) {
+            if (!hasId(node)) {
+                continue;
+            }
+            var previous = current.get(node.id());
+            if (previous == null) {
+                added.add(node);
+            } else if (!previous.equals(node)) {
+                changed.add(node);
+            } else {
+                node = previous;
+            }
+            nodes.put(node.id(), node);
+        }
+        var removed = current.values().stream().filter(node -> !nodes.containsKey(node.id())).toList();
+
+        var diff = new Diff(added, changed, removed);
+        if (!diff.isEmpty()) {
+            snapshot = Snapshot.of(nodes);
+        }
+        return diff;
     }
 
-    @Override
-    public TargetNode remove(String s) {
-        return null;
+    /**
+     * Returns the node of the participant with the given id, or null if it is not part of the directory.
+     */
+    public TargetNode getById(String id) {
+        return snapshot.byId().get(id);
+    }
+
+    /**
+     * Returns the nodes supporting the given protocol, e.g. {@code dataspace-protocol-http:2025-1}.
+     */
+    public List<TargetNode> getByProtocol(String protocol) {
+        return snapshot.byProtocol().getOrDefault(protocol, List.of());
+    }
+
+    private boolean hasId(TargetNode node) {
+        if (node.id() == null) {
+            monitor.warning("Participant %s at %s has no id and is skipped".formatted(node.name(), node.targetUrl()));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * The participants affected by an {@link #update(Collection)}.
+     */
+    public record Diff(List<TargetNode> added, List<TargetNode> changed, List<TargetNode> removed) {
+
+        public boolean isEmpty() {
+            return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+        }
+    }
+
+    private record Snapshot(List<TargetNode> nodes, Map<String, TargetNode> byId, Map<String, List<TargetNode>> byProtocol) {
+
+        static Snapshot of(LinkedHashMap<String, TargetNode> nodes) {
+            var byProtocol = new HashMap<String, List<TargetNode>>();
+            for (var node : nodes.values()) {
+                if (node.supportedProtocols() != null) {
+                    node.supportedProtocols().stream()
+                            .filter(Objects::nonNull)
+                            .forEach(protocol -> byProtocol.computeIfAbsent(protocol, k -> new ArrayList<>()).add(node));
+                }
+            }
+            byProtocol.replaceAll((protocol, protocolNodes) -> List.copyOf(protocolNodes));
+            // the immutable map is backed by a single array, the order of the nodes is kept by the list
+            return new Snapshot(List.copyOf(nodes.values()), Map.copyOf(nodes), Map.copyOf(byProtocol));
+        }
+
+        LinkedHashMap<String, TargetNode> copy() {
+            var copy = new LinkedHashMap<String, TargetNode>();
+            nodes.forEach(node -> copy.put(node.id(), node));
+            return copy;
+        }
     }
 }
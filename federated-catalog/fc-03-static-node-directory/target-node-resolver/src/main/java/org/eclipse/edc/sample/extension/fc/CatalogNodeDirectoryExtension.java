@@ -14,22 +14,89 @@
 
 package org.eclipse.edc.sample.extension.fc;
 
+import org.eclipse.edc.crawler.spi.TargetNode;
 import org.eclipse.edc.crawler.spi.TargetNodeDirectory;
 import org.eclipse.edc.runtime.metamodel.annotation.Inject;
 import org.eclipse.edc.runtime.metamodel.annotation.Provider;
+import org.eclipse.edc.runtime.metamodel.annotation.Setting;
+import org.eclipse.edc.spi.EdcException;
+import org.eclipse.edc.spi.monitor.Monitor;
 import org.eclipse.edc.spi.system.ServiceExtension;
+import org.eclipse.edc.spi.system.ServiceExtensionContext;
 import org.eclipse.edc.spi.types.TypeManager;
+import org.eclipse.edc.web.spi.WebService;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 
 public class CatalogNodeDirectoryExtension implements ServiceExtension {
+
+    @Setting(description = "Path of a participant file (JSON array or NDJSON) to use instead of the bundled participants.json. The file is watched and changes are applied without restart",
+            key = "edc.fc.participants.file", required = false)
+    private String participantsFile;
+
+    @Setting(description = "Id of this federated catalog instance in the shard members file. When set, the participants are shared between the members and this instance only crawls its share",
+            key = "edc.fc.shard.member.id", required = false)
+    private String shardMemberId;
+
+    @Setting(description = "Path of the JSON file listing the federated catalog instances sharing the crawl, as {\"id\", \"url\"} objects where url is the management API base url",
+            key = "edc.fc.shard.members.file", required = false)
+    private String shardMembersFile;
+
+    @Setting(description = "Number of positions of every member on the consistent hash ring, more positions spread the participants more evenly",
+            key = "edc.fc.shard.virtual.nodes", defaultValue = "128")
+    private int shardVirtualNodes;
+
+    @Setting(description = "Timeout in milliseconds of the catalog query sent to every shard member",
+            key = "edc.fc.shard.query.timeout", defaultValue = "30000")
+    private long shardQueryTimeout;
+
     @Inject
     private TypeManager typeManager;
+    @Inject
+    private Monitor monitor;
+    @Inject
+    private WebService webService;
+
+    private ParticipantFileWatcher watcher;
+    private ShardMembership shardMembership;
+
+    @Override
+    public void initialize(ServiceExtensionContext context) {
+        if (shardMemberId != null) {
+            if (shardMembersFile == null) {
+                throw new EdcException("edc.fc.shard.members.file is required when edc.fc.shard.member.id is set");
+            }
+            shardMembership = new FileShardMembership(Path.of(shardMembersFile), typeManager.getMapper(), monitor);
+            var controller = new ShardedCatalogApiController(shardMembership, HttpClient.newHttpClient(), typeManager.getMapper(), monitor,
+                    Duration.ofMillis(shardQueryTimeout));
+            webService.registerResource("management", controller);
+        }
+    }
 
-    @Provider 
+    @Provider
     public TargetNodeDirectory federatedCacheNodeDirectory() {
+        var directory = catalogNodeDirectory();
+        return shardMembership != null ? new ShardedNodeDirectory(directory, shardMembership, shardMemberId, shardVirtualNodes, monitor) : directory;
+    }
+
+    private CatalogNodeDirectory catalogNodeDirectory() {
+        var reader = new ParticipantFileReader(typeManager.getMapper());
+        if (participantsFile != null) {
+            var file = Path.of(participantsFile);
+            try {
+                var directory = new CatalogNodeDirectory(reader.read(file), monitor);
+                watcher = new ParticipantFileWatcher(file, reader, directory, monitor);
+                return directory;
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read and map participant list file: " + participantsFile, e);
+            }
+        }
+
         String participantsFilePath = "participants.json";
 
         ClassLoader classLoader = getClass().getClassLoader();
@@ -38,11 +105,29 @@ public class CatalogNodeDirectoryExtension implements ServiceExtension {
                 throw new RuntimeException("Participant list file does not exist: " + participantsFilePath);
             }
 
-            String participantFileContent = new String(participantFileInputStream.readAllBytes(), StandardCharsets.UTF_8);
+            List<TargetNode> targetNodes = reader.read(participantFileInputStream);
 
-            return new CatalogNodeDirectory(typeManager.getMapper(), participantFileContent);
+            return new CatalogNodeDirectory(targetNodes, monitor);
         } catch (IOException e) {
             throw new RuntimeException("Failed to read and map participant list file: " + participantsFilePath, e);
         }
     }
+
+    @Override
+    public void start() {
+        if (watcher != null) {
+            try {
+                watcher.start();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to watch participant list file: " + participantsFile, e);
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if (watcher != null) {
+            watcher.stop();
+        }
+    }
 }
@@ -0,0 +1,62 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.fc;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.eclipse.edc.spi.monitor.Monitor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+/**
+ * {@link ShardMembership} read from a JSON file listing the members, e.g. a file shared by all the instances. The file
+ * is read again whenever it is modified. When it cannot be read or parsed, e.g. while it is being rewritten, the last
+ * members read are kept, so a crawler run never fails because of the members file.
+ */
+public class FileShardMembership implements ShardMembership {
+
+    private static final TypeReference<List<ShardMember>> MEMBERS_TYPE = new TypeReference<>() {
+    };
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final Monitor monitor;
+    private FileTime lastModified;
+    private List<ShardMember> members = List.of();
+
+    public FileShardMembership(Path file, ObjectMapper objectMapper, Monitor monitor) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+        this.monitor = monitor;
+    }
+
+    @Override
+    public synchronized List<ShardMember> members() {
+        try {
+            var modified = Files.getLastModifiedTime(file);
+            if (!modified.equals(lastModified)) {
+                members = List.copyOf(objectMapper.readValue(file.toFile(), MEMBERS_TYPE));
+                lastModified = modified;
+            }
+        } catch (IOException | RuntimeException e) {
+            monitor.warning("Failed to read shard members from %s, keeping the %d members read before".formatted(file, members.size()), e);
+        }
+        return members;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.fc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.eclipse.edc.crawler.spi.TargetNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the participant list, either a JSON array of {@link TargetNode}s or newline-delimited JSON (one node per line).
+ * Nodes are read one at a time, so the whole document is never held in memory, neither as a string nor as a JSON tree.
+ * <p>
+ * Participant lists are very repetitive: nearly every node has the same name and supports the same protocols. Those
+ * strings and protocol lists are deduplicated while reading, so the memory used scales with the number of nodes and
+ * not with the size of the file.
+ */
+public class ParticipantFileReader {
+
+    private final ObjectMapper objectMapper;
+
+    public ParticipantFileReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public List<TargetNode> read(Path file) throws IOException {
+        try (var inputStream = Files.newInputStream(file)) {
+            return read(inputStream);
+        }
+    }
+
+    public List<TargetNode> read(InputStream inputStream) throws IOException {
+        var targetNodes = new ArrayList<TargetNode>();
+        var interner = new Interner();
+        // a root level array is unwrapped, while a sequence of root level objects (NDJSON) is read as it is
+        try (var iterator = objectMapper.readerFor(TargetNode.class).<TargetNode>readValues(inputStream)) {
+            while (iterator.hasNextValue()) {
+                targetNodes.add(interner.compact(iterator.nextValue()));
+            }
+        }
+        targetNodes.trimToSize();
+        return targetNodes;
+    }
+
+    private static class Interner {
+
+        private final Map<String, String> strings = new HashMap<>();
+        private final Map<List<String>, List<String>> protocols = new HashMap<>();
+
+        TargetNode compact(TargetNode node) {
+            return new TargetNode(intern(node.name()), node.id(), node.targetUrl(), intern(node.supportedProtocols()));
+        }
+
+        private String intern(String value) {
+            return value == null ? null : strings.computeIfAbsent(value, v -> v);
+        }
+
+        private List<String> intern(List<String> values) {
+            if (values == null) {
+                return null;
+            }
+            var existing = protocols.get(values);
+            if (existing != null) {
+                return existing;
+            }
+            var interned = values.stream().map(this::intern).toList();
+            protocols.put(interned, interned);
+            return interned;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.fc;
+
+import org.eclipse.edc.spi.monitor.Monitor;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+/**
+ * Watches the participant file and applies its changes to the {@link CatalogNodeDirectory}, so participants can be
+ * added or removed without restarting the federated catalog.
+ * <p>
+ * Editors that rewrite the file in place notify a change while it is still being written, and a truncated list may still
+ * parse. The file is therefore only read once its size and modification time stopped changing, and a file that cannot
+ * be parsed or lists no participant with an id leaves the directory unchanged. Replacing the file with an atomic move of a
+ * fully written file is the safest way to update it.
+ */
+public class ParticipantFileWatcher implements Runnable {
+
+    private static final long STABILITY_DELAY_MILLIS = 500;
+
+    private final Path file;
+    private final ParticipantFileReader reader;
+    private final CatalogNodeDirectory directory;
+    private final Monitor monitor;
+    private WatchService watchService;
+    private Thread thread;
+
+    public ParticipantFileWatcher(Path file, ParticipantFileReader reader, CatalogNodeDirectory directory, Monitor monitor) {
+        this.file = file.toAbsolutePath();
+        this.reader = reader;
+        this.directory = directory;
+        this.monitor = monitor;
+    }
+
+    public void start() throws IOException {
+        watchService = file.getFileSystem().newWatchService();
+        // files cannot be watched directly, the events of the parent directory are filtered instead
+        file.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+        thread = new Thread(this, "participant-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                monitor.warning("Failed to stop watching " + file, e);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                var key = watchService.take();
+                var modified = key.pollEvents().stream().anyMatch(event -> file.getFileName().equals(event.context()));
+                key.reset();
+                if (modified) {
+                    awaitStableFile();
+                    reload();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+        }
+    }
+
+    private void awaitStableFile() throws InterruptedException {
+        var previous = fileState();
+        while (true) {
+            Thread.sleep(STABILITY_DELAY_MILLIS);
+            var current = fileState();
+            if (current.equals(previous)) {
+                return;
+            }
+            previous = current;
+        }
+    }
+
+    private FileState fileState() {
+        try {
+            return new FileState(Files.size(file), Files.getLastModifiedTime(file));
+        } catch (IOException e) {
+            // the file is being replaced
+            return new FileState(-1, null);
+        }
+    }
+
+    private void reload() {
+        try {
+            var targetNodes = reader.read(file);
+            if (targetNodes.stream().allMatch(node -> node.id() == null)) {
+                monitor.warning("Participant file %s lists no participant with an id, keeping the current participants".formatted(file));
+                return;
+            }
+            var diff = directory.update(targetNodes);
+            if (!diff.isEmpty()) {
+                monitor.info("Participant file %s reloaded: %d added, %d changed, %d removed"
+                        .formatted(file, diff.added().size(), diff.changed().size(), diff.removed().size()));
+            }
+        } catch (IOException | RuntimeException e) {
+            monitor.warning("Failed to reload participant file %s, keeping the current participants".formatted(file), e);
+        }
+    }
+
+    private record FileState(long size, FileTime lastModified) {
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.fc;
+
+import java.util.List;
+
+/**
+ * Source of the federated catalog instances sharing the crawl of the dataspace. Every instance must see the same
+ * members, otherwise some participants would be crawled twice or not at all.
+ */
+@FunctionalInterface
+public interface ShardMembership {
+
+    List<ShardMember> members();
+
+    /**
+     * A federated catalog instance, identified by a stable id and reachable under the base url of its management API.
+     */
+    record ShardMember(String id, String url) {
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.fc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.edc.spi.monitor.Monitor;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
+
+/**
+ * Answers catalog queries of a sharded federated catalog: the query is sent to the catalog API of every member
+ * (including this instance) in parallel, and the catalogs they return are merged in a single answer. A member that
+ * cannot be reached is left out of the answer.
+ * <p>
+ * Paging only makes sense on the merged answer: the members are queried without {@code offset} and {@code limit}, which
+ * are applied once to the merged catalogs, in the order of the members. Sorting would have to compare catalogs across
+ * members, a query with a {@code sortField} is therefore rejected.
+ */
+@Path("/sharded/catalogs/request")
+@Consumes(APPLICATION_JSON)
+@Produces(APPLICATION_JSON)
+public class ShardedCatalogApiController {
+
+    private static final String CATALOG_REQUEST_PATH = "/v3/catalogs/request";
+    private static final List<String> FORWARDED_HEADERS = List.of(HttpHeaders.AUTHORIZATION, "x-api-key");
+    private static final String EDC_NAMESPACE = "https://w3id.org/edc/v0.0.1/ns/";
+    private static final String OFFSET = "offset";
+    private static final String LIMIT = "limit";
+    private static final String SORT_FIELD = "sortField";
+    private static final String SORT_ORDER = "sortOrder";
+    private static final List<String> PAGING_PROPERTIES = List.of(OFFSET, LIMIT, SORT_FIELD, SORT_ORDER);
+    // the default limit of the catalog API, applied to the merged answer when the query has none
+    private static final long DEFAULT_LIMIT = 50;
+
+    private final ShardMembership membership;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final Monitor monitor;
+    private final Duration timeout;
+
+    public ShardedCatalogApiController(ShardMembership membership, HttpClient httpClient, ObjectMapper objectMapper, Monitor monitor, Duration timeout) {
+        this.membership = membership;
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.monitor = monitor;
+        this.timeout = timeout;
+    }
+
+    @POST
+    public void requestCatalogs(String querySpec, @Context HttpHeaders headers, @Suspended AsyncResponse response) {
+        ObjectNode spec;
+        long offset;
+        long limit;
+        try {
+            if (!(objectMapper.readTree(querySpec == null ? "" : querySpec) instanceof ObjectNode node)) {
+                response.resume(badRequest("The query must be a JSON object"));
+                return;
+            }
+            if (property(node, SORT_FIELD) != null) {
+                response.resume(badRequest("Sorting is not supported across the shard members"));
+                return;
+            }
+            spec = node;
+            offset = longProperty(spec, OFFSET, 0);
+            limit = longProperty(spec, LIMIT, DEFAULT_LIMIT);
+        } catch (IOException | IllegalArgumentException e) {
+            response.resume(badRequest("Invalid query: " + e.getMessage()));
+            return;
+        }
+        if (offset < 0 || limit < 1) {
+            response.resume(badRequest("The offset must not be negative and the limit must be positive"));
+            return;
+        }
+
+        String memberQuery;
+        try {
+            memberQuery = objectMapper.writeValueAsString(withoutPaging(spec));
+        } catch (IOException e) {
+            response.resume(e);
+            return;
+        }
+        var requests = membership.members().stream()
+                .map(member -> queryMember(member, memberQuery, headers))
+                .toList();
+
+        CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new))
+                .thenApply(v -> {
+                    var catalogs = objectMapper.createArrayNode();
+                    requests.stream()
+                            .flatMap(request -> request.join().stream())
+                            .skip(offset)
+                            .limit(limit)
+                            .forEach(catalogs::add);
+                    return catalogs;
+                })
+                .whenComplete((catalogs, throwable) -> {
+                    if (throwable != null) {
+                        response.resume(throwable);
+                    } else {
+                        response.resume(catalogs);
+                    }
+                });
+    }
+
+    /**
+     * Copies the query without its paging and sorting, asking the member for all its matching catalogs. The limit is
+     * set with its full IRI, which expands the same whatever the context of the query.
+     */
+    private ObjectNode withoutPaging(ObjectNode spec) {
+        var query = spec.deepCopy();
+        var names = new ArrayList<String>();
+        query.fieldNames().forEachRemaining(names::add);
+        names.stream()
+                .filter(name -> PAGING_PROPERTIES.stream().anyMatch(property -> isProperty(name, property)))
+                .forEach(query::remove);
+        query.put(EDC_NAMESPACE + LIMIT, Integer.MAX_VALUE);
+        return query;
+    }
+
+    private long longProperty(ObjectNode spec, String property, long defaultValue) {
+        var value = property(spec, property);
+        if (value == null || value.isNull()) {
+            return defaultValue;
+        }
+        if (value.isArray()) {
+            value = value.path(0);
+        }
+        if (value.isObject()) {
+            value = value.path("@value");
+        }
+        if (value.isIntegralNumber()) {
+            return value.asLong();
+        }
+        if (value.isTextual()) {
+            return Long.parseLong(value.asText().trim());
+        }
+        throw new IllegalArgumentException(property + " must be an integer");
+    }
+
+    /**
+     * Returns the value of a query property, whether it is written with its term, a prefix or its full IRI.
+     */
+    private JsonNode property(ObjectNode spec, String property) {
+        var fields = spec.fields();
+        while (fields.hasNext()) {
+            var field = fields.next();
+            if (isProperty(field.getKey(), property)) {
+                return field.getValue();
+            }
+        }
+        return null;
+    }
+
+    private boolean isProperty(String name, String property) {
+        return name.equals(property) || name.endsWith("/" + property) || name.endsWith(":" + property);
+    }
+
+    private Response badRequest(String message) {
+        return Response.status(Response.Status.BAD_REQUEST)
+                .entity(objectMapper.createArrayNode().add(objectMapper.createObjectNode().put("message", message)))
+                .build();
+    }
+
+    private CompletableFuture<List<JsonNode>> queryMember(ShardMembership.ShardMember member, String querySpec, HttpHeaders headers) {
+        var request = HttpRequest.newBuilder(URI.create(member.url() + CATALOG_REQUEST_PATH))
+                .timeout(timeout)
+                .header(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON)
+                .POST(HttpRequest.BodyPublishers.ofString(querySpec));
+        FORWARDED_HEADERS.forEach(name -> {
+            var value = headers.getHeaderString(name);
+            if (value != null) {
+                request.header(name, value);
+            }
+        });
+
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(memberResponse -> {
+                    if (memberResponse.statusCode() != 200) {
+                        monitor.warning("Shard member %s answered the catalog query with status %d".formatted(member.id(), memberResponse.statusCode()));
+                        return List.<JsonNode>of();
+                    }
+                    return readCatalogs(member, memberResponse.body());
+                })
+                .exceptionally(throwable -> {
+                    monitor.warning("Shard member %s could not be queried".formatted(member.id()), throwable);
+                    return List.of();
+                });
+    }
+
+    private List<JsonNode> readCatalogs(ShardMembership.ShardMember member, byte[] body) {
+        try {
+            var catalogs = objectMapper.readTree(body);
+            if (!catalogs.isArray()) {
+                return List.of(catalogs);
+            }
+            var result = new ArrayList<JsonNode>(catalogs.size());
+            catalogs.forEach(result::add);
+            return result;
+        } catch (IOException e) {
+            monitor.warning("Shard member %s returned an invalid catalog list".formatted(member.id()), e);
+            return List.of();
+        }
+    }
+}
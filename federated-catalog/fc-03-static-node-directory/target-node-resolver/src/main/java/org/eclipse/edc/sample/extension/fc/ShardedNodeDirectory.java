@@ -0,0 +1,77 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.fc;
+
+import org.eclipse.edc.crawler.spi.TargetNode;
+import org.eclipse.edc.crawler.spi.TargetNodeDirectory;
+import org.eclipse.edc.spi.monitor.Monitor;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@link TargetNodeDirectory} of a federated catalog instance that shares the crawl with other instances: it only
+ * returns the participants assigned to this instance by consistent hashing of the participant id, so every participant
+ * is crawled by exactly one instance. The hash ring is rebuilt whenever the members change.
+ */
+public class ShardedNodeDirectory implements TargetNodeDirectory {
+
+    private final TargetNodeDirectory directory;
+    private final ShardMembership membership;
+    private final String memberId;
+    private final int virtualNodes;
+    private final Monitor monitor;
+    private List<ShardMembership.ShardMember> members;
+    private ConsistentHashRing ring;
+
+    public ShardedNodeDirectory(TargetNodeDirectory directory, ShardMembership membership, String memberId, int virtualNodes, Monitor monitor) {
+        this.directory = directory;
+        this.membership = membership;
+        this.memberId = memberId;
+        this.virtualNodes = virtualNodes;
+        this.monitor = monitor;
+    }
+
+    @Override
+    public List<TargetNode> getAll() {
+        var currentRing = ring();
+        return directory.getAll().stream()
+                .filter(node -> memberId.equals(currentRing.owner(node.id())))
+                .toList();
+    }
+
+    @Override
+    public void insert(TargetNode targetNode) {
+        directory.insert(targetNode);
+    }
+
+    @Override
+    public TargetNode remove(String id) {
+        return directory.remove(id);
+    }
+
+    private synchronized ConsistentHashRing ring() {
+        var currentMembers = membership.members();
+        if (ring == null || !Objects.equals(currentMembers, members)) {
+            var ids = currentMembers.stream().map(ShardMembership.ShardMember::id).toList();
+            if (!ids.contains(memberId)) {
+                monitor.warning("Shard member %s is not listed in the shard members %s, this instance will not crawl any participant".formatted(memberId, ids));
+            }
+            ring = new ConsistentHashRing(ids, virtualNodes);
+            members = currentMembers;
+        }
+        return ring;
+    }
+}
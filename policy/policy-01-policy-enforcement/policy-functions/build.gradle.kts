@@ -8,5 +8,6 @@ dependencies {
     api(libs.edc.json.ld.spi)
 
     implementation(libs.edc.control.plane.core)
+    implementation(libs.opentelemetry.api)
 
 }
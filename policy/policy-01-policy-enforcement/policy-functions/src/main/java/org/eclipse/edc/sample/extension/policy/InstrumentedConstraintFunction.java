@@ -0,0 +1,55 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.policy;
+
+import org.eclipse.edc.policy.engine.spi.AtomicConstraintRuleFunction;
+import org.eclipse.edc.policy.engine.spi.PolicyContext;
+import org.eclipse.edc.policy.model.Operator;
+import org.eclipse.edc.policy.model.Rule;
+import org.eclipse.edc.spi.result.Result;
+
+/**
+ * Reports every evaluation of a constraint function, with its outcome and duration, to a {@link PolicyFunctionObserver}.
+ */
+public class InstrumentedConstraintFunction<R extends Rule, C extends PolicyContext> implements AtomicConstraintRuleFunction<R, C> {
+
+    private final AtomicConstraintRuleFunction<R, C> delegate;
+    private final PolicyFunctionObserver observer;
+    private final String name;
+
+    public InstrumentedConstraintFunction(AtomicConstraintRuleFunction<R, C> delegate, PolicyFunctionObserver observer) {
+        this.delegate = delegate;
+        this.observer = observer;
+        this.name = delegate.name();
+    }
+
+    @Override
+    public boolean evaluate(Operator operator, Object rightValue, R rule, C context) {
+        var start = System.nanoTime();
+        var allowed = delegate.evaluate(operator, rightValue, rule, context);
+        observer.evaluated(name, context.scope(), allowed, System.nanoTime() - start);
+        return allowed;
+    }
+
+    @Override
+    public Result<Void> validate(Operator operator, Object rightValue, R rule) {
+        return delegate.validate(operator, rightValue, rule);
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+}
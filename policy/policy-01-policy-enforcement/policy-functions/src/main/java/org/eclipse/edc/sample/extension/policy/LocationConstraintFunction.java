@@ -23,26 +23,30 @@ import org.eclipse.edc.spi.monitor.Monitor;
 import java.util.Collection;
 import java.util.Objects;
 
-import static java.lang.String.format;
-
+/**
+ * Evaluates the location constraint against the {@code region} claim of the participant. An {@code IN} constraint is
+ * checked with {@link Collection#contains}, a linear scan that is cheap for the handful of regions a policy lists. The
+ * evaluation is logged at debug level: the message is only formatted when debug logging is enabled, but the supplier is
+ * still allocated on every call.
+ */
 public class LocationConstraintFunction implements AtomicConstraintRuleFunction<Permission, ContractNegotiationPolicyContext> {
-    
+
     private final Monitor monitor;
-    
+
     public LocationConstraintFunction(Monitor monitor) {
         this.monitor = monitor;
     }
-    
+
     @Override
     public boolean evaluate(Operator operator, Object rightValue, Permission rule, ContractNegotiationPolicyContext context) {
         var region = context.participantAgent().getClaims().get("region");
-        
-        monitor.info(format("Evaluating constraint: location %s %s", operator, rightValue.toString()));
-        
+
+        monitor.debug(() -> "Evaluating constraint: location %s %s".formatted(operator, rightValue));
+
         return switch (operator) {
             case EQ -> Objects.equals(region, rightValue);
             case NEQ -> !Objects.equals(region, rightValue);
-            case IN -> ((Collection<?>) rightValue).contains(region);
+            case IN -> region != null && rightValue instanceof Collection<?> regions && regions.contains(region);
             default -> false;
         };
     }
@@ -0,0 +1,33 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.policy;
+
+/**
+ * Notified of every evaluation of an instrumented policy function. Implementations are called on the evaluation path
+ * and must be cheap and thread-safe.
+ */
+@FunctionalInterface
+public interface PolicyFunctionObserver {
+
+    /**
+     * Called after a function was evaluated.
+     *
+     * @param function the name of the function.
+     * @param scope the policy scope of the evaluation, e.g. {@code contract.negotiation}.
+     * @param allowed whether the constraint was fulfilled.
+     * @param nanos the evaluation time in nanoseconds.
+     */
+    void evaluated(String function, String scope, boolean allowed, long nanos);
+}
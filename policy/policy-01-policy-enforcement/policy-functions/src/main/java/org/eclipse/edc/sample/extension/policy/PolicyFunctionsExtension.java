@@ -14,6 +14,7 @@
 
 package org.eclipse.edc.sample.extension.policy;
 
+import io.opentelemetry.api.GlobalOpenTelemetry;
 import org.eclipse.edc.connector.controlplane.contract.spi.policy.ContractNegotiationPolicyContext;
 import org.eclipse.edc.policy.engine.spi.PolicyEngine;
 import org.eclipse.edc.policy.engine.spi.RuleBindingRegistry;
@@ -43,9 +44,11 @@ public class PolicyFunctionsExtension implements ServiceExtension {
     @Override
     public void initialize(ServiceExtensionContext context) {
         var monitor = context.getMonitor();
+        var metrics = new PolicyMetrics(GlobalOpenTelemetry.getMeter("org.eclipse.edc.sample.policy"));
         
         ruleBindingRegistry.bind(ODRL_USE_ACTION_ATTRIBUTE, ALL_SCOPES);
         ruleBindingRegistry.bind(LOCATION_CONSTRAINT_KEY, NEGOTIATION_SCOPE);
-        policyEngine.registerFunction(ContractNegotiationPolicyContext.class, Permission.class, LOCATION_CONSTRAINT_KEY, new LocationConstraintFunction(monitor));
+        var locationFunction = new InstrumentedConstraintFunction<Permission, ContractNegotiationPolicyContext>(new LocationConstraintFunction(monitor), metrics);
+        policyEngine.registerFunction(ContractNegotiationPolicyContext.class, Permission.class, LOCATION_CONSTRAINT_KEY, locationFunction);
     }
 }
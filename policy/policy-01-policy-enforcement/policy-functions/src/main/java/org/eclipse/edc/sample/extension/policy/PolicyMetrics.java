@@ -0,0 +1,83 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.policy;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * OpenTelemetry instruments of the policy functions. When the runtime is started with the OpenTelemetry java agent (see
+ * the {@code advanced-01-open-telemetry} sample) they are exported with the other agent metrics, otherwise they are
+ * no-op.
+ * <p>
+ * Attributes are created once per function, scope and outcome and reused, so recording an evaluation does not allocate.
+ */
+class PolicyMetrics implements PolicyFunctionObserver {
+
+    private static final AttributeKey<String> FUNCTION = AttributeKey.stringKey("edc.policy.function");
+    private static final AttributeKey<String> SCOPE = AttributeKey.stringKey("edc.policy.scope");
+    private static final AttributeKey<String> DECISION = AttributeKey.stringKey("edc.policy.decision");
+    private static final List<Double> LATENCY_BUCKETS = List.of(0.000001, 0.0000025, 0.000005, 0.00001, 0.000025, 0.00005, 0.0001, 0.00025, 0.0005, 0.001, 0.005, 0.01);
+
+    private final LongCounter evaluations;
+    private final DoubleHistogram evaluationDuration;
+    private final Map<String, Map<String, Outcomes>> outcomes = new ConcurrentHashMap<>();
+
+    PolicyMetrics(Meter meter) {
+        evaluations = meter.counterBuilder("edc.policy.evaluations")
+                .setDescription("Constraint evaluations, per function, scope and decision")
+                .build();
+        evaluationDuration = meter.histogramBuilder("edc.policy.evaluation.duration")
+                .setDescription("Time spent evaluating a single constraint")
+                .setUnit("s")
+                .setExplicitBucketBoundariesAdvice(LATENCY_BUCKETS)
+                .build();
+    }
+
+    @Override
+    public void evaluated(String function, String scope, boolean allowed, long nanos) {
+        var outcome = outcomes(function, scope);
+        var attributes = allowed ? outcome.allow() : outcome.deny();
+        evaluations.add(1, attributes);
+        evaluationDuration.record(nanos / 1e9, attributes);
+    }
+
+    private Outcomes outcomes(String function, String scope) {
+        var byScope = outcomes.get(function);
+        if (byScope == null) {
+            byScope = outcomes.computeIfAbsent(function, k -> new ConcurrentHashMap<>());
+        }
+        var outcome = byScope.get(scope);
+        if (outcome == null) {
+            outcome = byScope.computeIfAbsent(scope, k -> new Outcomes(
+                    Attributes.of(FUNCTION, function, SCOPE, scope, DECISION, "allow"),
+                    Attributes.of(FUNCTION, function, SCOPE, scope, DECISION, "deny")));
+        }
+        return outcome;
+    }
+
+    /**
+     * The attributes of the allowed and denied evaluations of a function in a scope.
+     */
+    private record Outcomes(Attributes allow, Attributes deny) {
+    }
+}
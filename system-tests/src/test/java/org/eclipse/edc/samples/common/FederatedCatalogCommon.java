@@ -22,6 +22,7 @@ import org.eclipse.edc.junit.extensions.RuntimeExtension;
 import org.eclipse.edc.junit.extensions.RuntimePerClassExtension;
 import org.eclipse.edc.spi.system.configuration.ConfigFactory;
 
+import java.nio.file.Path;
 import java.util.Map;
 
 import static io.restassured.RestAssured.given;
@@ -47,11 +48,15 @@ public class FederatedCatalogCommon {
     private static final String CRAWLER_EXECUTION_DELAY = "edc.catalog.cache.execution.delay.seconds";
     public static final int CRAWLER_EXECUTION_DELAY_VALUE = 1;
     private static final String CRAWLER_EXECUTION_PERIOD = "edc.catalog.cache.execution.period.seconds";
+    private static final String PARTICIPANTS_FILE = "edc.fc.participants.file";
+    private static final String SHARD_MEMBER_ID = "edc.fc.shard.member.id";
+    private static final String SHARD_MEMBERS_FILE = "edc.fc.shard.members.file";
     public static final int CRAWLER_EXECUTION_PERIOD_VALUE = 5;
     public static final int TIMEOUT = 5 * CRAWLER_EXECUTION_PERIOD_VALUE;
 
     public static final String EMBEDDED_FC_CATALOG_API_ENDPOINT = "http://localhost:29193/api/management/v3/catalogs/request";
     public static final String STANDALONE_FC_CATALOG_API_ENDPOINT = "http://localhost:39193/api/management/v3/catalogs/request";
+    public static final String SHARDED_CATALOG_API_PATH = "/api/management/sharded/catalogs/request";
     public static final String EMPTY_QUERY_FILE_PATH = "federated-catalog/fc-01-embedded/resources/empty-query.json";
     public static final String TYPE = "[0].@type";
     public static final String DATASET_ASSET_ID = "[0].dataset[0].@id";
@@ -64,6 +69,40 @@ public class FederatedCatalogCommon {
         return getRuntime(modulePath, STANDALONE_FC, STANDALONE_FC_CONFIG_PROPERTIES_FILE_PATH);
     }
 
+    /**
+     * Returns a standalone FC reading its participants from the given file instead of the bundled participant list.
+     */
+    public static RuntimeExtension getStandaloneFc(String modulePath, Path participantsFile) {
+        return new RuntimePerClassExtension(new EmbeddedRuntime(STANDALONE_FC, modulePath)
+                .configurationProvider(fromPropertiesFile(STANDALONE_FC_CONFIG_PROPERTIES_FILE_PATH))
+                .configurationProvider(() -> ConfigFactory.fromMap(Map.of(
+                    CRAWLER_EXECUTION_DELAY, Integer.toString(CRAWLER_EXECUTION_DELAY_VALUE),
+                    CRAWLER_EXECUTION_PERIOD, Integer.toString(CRAWLER_EXECUTION_PERIOD_VALUE),
+                    PARTICIPANTS_FILE, participantsFile.toString()))
+                )
+        );
+    }
+
+    /**
+     * Returns a standalone FC sharing the crawl with the other members of the members file. Its web contexts listen on
+     * the given port and the three following ones (control, management, protocol), so that several members can run side by side.
+     */
+    public static RuntimeExtension getShardedStandaloneFc(String modulePath, String memberId, int port, Path membersFile) {
+        return new RuntimePerClassExtension(new EmbeddedRuntime(STANDALONE_FC + "-" + memberId, modulePath)
+                .configurationProvider(fromPropertiesFile(STANDALONE_FC_CONFIG_PROPERTIES_FILE_PATH))
+                .configurationProvider(() -> ConfigFactory.fromMap(Map.of(
+                    CRAWLER_EXECUTION_DELAY, Integer.toString(CRAWLER_EXECUTION_DELAY_VALUE),
+                    CRAWLER_EXECUTION_PERIOD, Integer.toString(CRAWLER_EXECUTION_PERIOD_VALUE),
+                    "web.http.port", Integer.toString(port),
+                    "web.http.control.port", Integer.toString(port + 1),
+                    "web.http.management.port", Integer.toString(port + 2),
+                    "web.http.protocol.port", Integer.toString(port + 3),
+                    SHARD_MEMBER_ID, memberId,
+                    SHARD_MEMBERS_FILE, membersFile.toString()))
+                )
+        );
+    }
+
     private static RuntimeExtension getRuntime(
             String modulePath,
             String moduleName,
@@ -41,6 +41,7 @@ public class NegotiationCommon {
     private static final String CONTRACT_NEGOTIATION_ID = "@id";
     private static final String CONTRACT_AGREEMENT_ID = "contractAgreementId";
     private static final String CONTRACT_OFFER_ID_KEY = "{{contract-offer-id}}";
+    private static final String SAMPLE_ASSET_ID = "\"assetId\"";
 
     public static void createAsset() {
         post(PrerequisitesCommon.PROVIDER_MANAGEMENT_URL + V3_ASSETS_PATH, getFileContentFromRelativePath(CREATE_ASSET_FILE_PATH));
@@ -97,4 +98,25 @@ public class NegotiationCommon {
         var contractNegotiationId = negotiateContract(NEGOTIATE_CONTRACT_FILE_PATH, catalogDatasetId);
         return getContractAgreementId(contractNegotiationId);
     }
+
+    /**
+     * Negotiates a contract for another asset than the one of the sample, offered by a contract definition that already
+     * exists on the provider.
+     */
+    public static String runNegotiation(String assetId) {
+        var catalogDatasetId = post(
+                PrerequisitesCommon.CONSUMER_MANAGEMENT_URL + V2_CATALOG_DATASET_REQUEST_PATH,
+                getFileContentFromRelativePath(FETCH_DATASET_FROM_CATALOG_FILE_PATH).replace(SAMPLE_ASSET_ID, "\"%s\"".formatted(assetId)),
+                CATALOG_DATASET_ID
+        );
+        var requestBody = getFileContentFromRelativePath(NEGOTIATE_CONTRACT_FILE_PATH)
+                .replace(CONTRACT_OFFER_ID_KEY, catalogDatasetId)
+                .replace(SAMPLE_ASSET_ID, "\"%s\"".formatted(assetId));
+        var contractNegotiationId = post(
+                PrerequisitesCommon.CONSUMER_MANAGEMENT_URL + V2_CONTRACT_NEGOTIATIONS_PATH,
+                requestBody,
+                CONTRACT_NEGOTIATION_ID
+        );
+        return getContractAgreementId(contractNegotiationId);
+    }
 }
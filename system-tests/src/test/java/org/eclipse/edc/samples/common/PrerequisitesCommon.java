@@ -18,6 +18,9 @@ import org.eclipse.edc.junit.extensions.EmbeddedRuntime;
 import org.eclipse.edc.junit.extensions.RuntimeExtension;
 import org.eclipse.edc.junit.extensions.RuntimePerClassExtension;
 import org.eclipse.edc.samples.util.ConfigPropertiesLoader;
+import org.eclipse.edc.spi.system.configuration.ConfigFactory;
+
+import java.util.Map;
 
 public class PrerequisitesCommon {
     public static final String API_KEY_HEADER_KEY = "X-Api-Key";
@@ -39,6 +42,16 @@ public class PrerequisitesCommon {
         return getConnector(modulePath, PROVIDER, configPath);
     }
 
+    /**
+     * Returns a provider whose configuration file settings are completed or overridden by the given ones.
+     */
+    public static RuntimeExtension getProvider(String modulePath, String configPath, Map<String, String> settings) {
+        return new RuntimePerClassExtension(new EmbeddedRuntime(PROVIDER, modulePath)
+                .configurationProvider(ConfigPropertiesLoader.fromPropertiesFile(configPath))
+                .configurationProvider(() -> ConfigFactory.fromMap(settings))
+        );
+    }
+
     public static RuntimeExtension getConsumer() {
         return getConsumer(CONNECTOR_MODULE_PATH);
     }
@@ -0,0 +1,101 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.samples.federated.catalog;
+
+import org.eclipse.edc.junit.annotations.EndToEndTest;
+import org.eclipse.edc.junit.extensions.RuntimeExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.eclipse.edc.samples.common.FederatedCatalogCommon.CRAWLER_EXECUTION_DELAY_VALUE;
+import static org.eclipse.edc.samples.common.FederatedCatalogCommon.CRAWLER_EXECUTION_PERIOD_VALUE;
+import static org.eclipse.edc.samples.common.FederatedCatalogCommon.DATASET_ASSET_ID;
+import static org.eclipse.edc.samples.common.FederatedCatalogCommon.EMPTY_QUERY_FILE_PATH;
+import static org.eclipse.edc.samples.common.FederatedCatalogCommon.STANDALONE_FC_CATALOG_API_ENDPOINT;
+import static org.eclipse.edc.samples.common.FederatedCatalogCommon.TIMEOUT;
+import static org.eclipse.edc.samples.common.FederatedCatalogCommon.createAsset;
+import static org.eclipse.edc.samples.common.FederatedCatalogCommon.getStandaloneFc;
+import static org.eclipse.edc.samples.common.FederatedCatalogCommon.postAndAssertType;
+import static org.eclipse.edc.samples.common.FileTransferCommon.getFileContentFromRelativePath;
+import static org.eclipse.edc.samples.common.NegotiationCommon.createContractDefinition;
+import static org.eclipse.edc.samples.common.NegotiationCommon.createPolicy;
+import static org.eclipse.edc.samples.common.PrerequisitesCommon.getProvider;
+import static org.eclipse.edc.samples.util.TransferUtil.post;
+
+@EndToEndTest
+public class FederatedCatalog03participantFileReloadTest {
+
+    private static final String PROVIDER = """
+            {"name": "https://w3id.org/edc/v0.0.1/ns/", "id": "provider", "url": "http://localhost:19194/protocol/2025-1", "supportedProtocols": ["dataspace-protocol-http:2025-1"]}
+            """;
+    // a participant without id is skipped, it must neither prevent the start nor a reload
+    private static final String PARTICIPANT_WITHOUT_ID = """
+            {"name": "https://w3id.org/edc/v0.0.1/ns/", "url": "http://localhost:19994/protocol/2025-1", "supportedProtocols": ["dataspace-protocol-http:2025-1"]}
+            """;
+    private static final Path PARTICIPANTS_FILE = writeParticipantsFile(PARTICIPANT_WITHOUT_ID);
+
+    @RegisterExtension
+    static final RuntimeExtension PARTICIPANT_CONNECTOR = getProvider();
+
+    @RegisterExtension
+    static final RuntimeExtension STANDALONE_FC_RUNTIME = getStandaloneFc(":federated-catalog:fc-03-static-node-directory:standalone-fc-with-node-resolver",
+            PARTICIPANTS_FILE);
+
+    @Test
+    void runSampleSteps() throws IOException {
+        var assetId = createAsset();
+        createPolicy();
+        createContractDefinition();
+
+        // the provider is not listed yet, a full crawl does not return its catalog
+        await()
+                .pollDelay(Duration.ofSeconds(CRAWLER_EXECUTION_DELAY_VALUE + CRAWLER_EXECUTION_PERIOD_VALUE))
+                .atMost(Duration.ofSeconds(TIMEOUT))
+                .untilAsserted(() -> assertThat(post(STANDALONE_FC_CATALOG_API_ENDPOINT, getFileContentFromRelativePath(EMPTY_QUERY_FILE_PATH))
+                        .extract().jsonPath().getList("$")).isEmpty());
+
+        // the file is replaced while the federated catalog runs, the next crawl picks the provider up
+        var updated = Files.writeString(Files.createTempFile(PARTICIPANTS_FILE.getParent(), "participants", ".ndjson"), PARTICIPANT_WITHOUT_ID + PROVIDER);
+        Files.move(updated, PARTICIPANTS_FILE, ATOMIC_MOVE);
+
+        await()
+                .atMost(Duration.ofSeconds(TIMEOUT))
+                .pollDelay(Duration.ofSeconds(CRAWLER_EXECUTION_DELAY_VALUE))
+                .ignoreExceptions()
+                .until(() -> postAndAssertType(STANDALONE_FC_CATALOG_API_ENDPOINT, getFileContentFromRelativePath(EMPTY_QUERY_FILE_PATH)).get(DATASET_ASSET_ID),
+                        id -> id.equals(assetId));
+    }
+
+    private static Path writeParticipantsFile(String content) {
+        try {
+            var directory = Files.createTempDirectory("fc-participants");
+            directory.toFile().deleteOnExit();
+            var file = Files.writeString(directory.resolve("participants.ndjson"), content);
+            file.toFile().deleteOnExit();
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
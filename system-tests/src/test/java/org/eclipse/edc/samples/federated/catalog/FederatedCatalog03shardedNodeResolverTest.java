@@ -0,0 +1,99 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.samples.federated.catalog;
+
+import org.eclipse.edc.junit.annotations.EndToEndTest;
+import org.eclipse.edc.junit.extensions.RuntimeExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.eclipse.edc.samples.common.FederatedCatalogCommon.CRAWLER_EXECUTION_DELAY_VALUE;
+import static org.eclipse.edc.samples.common.FederatedCatalogCommon.DATASET_ASSET_ID;
+import static org.eclipse.edc.samples.common.FederatedCatalogCommon.EMPTY_QUERY_FILE_PATH;
+import static org.eclipse.edc.samples.common.FederatedCatalogCommon.SHARDED_CATALOG_API_PATH;
+import static org.eclipse.edc.samples.common.FederatedCatalogCommon.TIMEOUT;
+import static org.eclipse.edc.samples.common.FederatedCatalogCommon.createAsset;
+import static org.eclipse.edc.samples.common.FederatedCatalogCommon.getShardedStandaloneFc;
+import static org.eclipse.edc.samples.common.FederatedCatalogCommon.postAndAssertType;
+import static org.eclipse.edc.samples.common.FileTransferCommon.getFileContentFromRelativePath;
+import static org.eclipse.edc.samples.common.NegotiationCommon.createContractDefinition;
+import static org.eclipse.edc.samples.common.NegotiationCommon.createPolicy;
+import static org.eclipse.edc.samples.common.PrerequisitesCommon.getProvider;
+
+@EndToEndTest
+public class FederatedCatalog03shardedNodeResolverTest {
+
+    private static final String MODULE_PATH = ":federated-catalog:fc-03-static-node-directory:standalone-fc-with-node-resolver";
+    private static final int FC_1_PORT = 39191;
+    private static final int FC_2_PORT = 39291;
+    private static final int FC_1_MANAGEMENT_PORT = FC_1_PORT + 2;
+    private static final int FC_2_MANAGEMENT_PORT = FC_2_PORT + 2;
+    private static final Path MEMBERS_FILE = writeMembersFile();
+
+    @RegisterExtension
+    static final RuntimeExtension PARTICIPANT_CONNECTOR = getProvider();
+
+    @RegisterExtension
+    static final RuntimeExtension FC_1 = getShardedStandaloneFc(MODULE_PATH, "fc-1", FC_1_PORT, MEMBERS_FILE);
+
+    @RegisterExtension
+    static final RuntimeExtension FC_2 = getShardedStandaloneFc(MODULE_PATH, "fc-2", FC_2_PORT, MEMBERS_FILE);
+
+    @Test
+    void runSampleSteps() {
+        var assetId = createAsset();
+        createPolicy();
+        createContractDefinition();
+
+        // the participant is crawled by a single member, but every member answers with the catalogs of all members
+        for (var port : new int[]{ FC_1_MANAGEMENT_PORT, FC_2_MANAGEMENT_PORT }) {
+            var catalogs = await()
+                    .atMost(Duration.ofSeconds(TIMEOUT))
+                    .pollDelay(Duration.ofSeconds(CRAWLER_EXECUTION_DELAY_VALUE))
+                    .ignoreExceptions()
+                    .until(() -> postAndAssertType(shardedCatalogApi(port), getFileContentFromRelativePath(EMPTY_QUERY_FILE_PATH)),
+                            result -> assetId.equals(result.get(DATASET_ASSET_ID)));
+
+            assertThat(catalogs.getList("$")).hasSize(1);
+        }
+    }
+
+    private static String shardedCatalogApi(int managementPort) {
+        return "http://localhost:" + managementPort + SHARDED_CATALOG_API_PATH;
+    }
+
+    private static Path writeMembersFile() {
+        try {
+            var file = Files.createTempFile("shard-members", ".json");
+            file.toFile().deleteOnExit();
+            return Files.writeString(file, """
+                    [
+                      { "id": "fc-1", "url": "http://localhost:%d/api/management" },
+                      { "id": "fc-2", "url": "http://localhost:%d/api/management" }
+                    ]
+                    """.formatted(FC_1_MANAGEMENT_PORT, FC_2_MANAGEMENT_PORT));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
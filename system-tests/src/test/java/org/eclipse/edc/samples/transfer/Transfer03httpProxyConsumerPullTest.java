@@ -15,27 +15,64 @@
 
 package org.eclipse.edc.samples.transfer;
 
+import io.restassured.path.json.JsonPath;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.apache.http.HttpStatus;
 import org.eclipse.edc.connector.controlplane.transfer.spi.types.TransferProcessStates;
 import org.eclipse.edc.junit.annotations.EndToEndTest;
 import org.eclipse.edc.junit.extensions.RuntimeExtension;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static io.restassured.RestAssured.given;
+import static org.apache.http.HttpHeaders.ACCEPT_ENCODING;
+import static org.apache.http.HttpHeaders.ACCEPT_RANGES;
 import static org.apache.http.HttpHeaders.AUTHORIZATION;
+import static org.apache.http.HttpHeaders.CACHE_CONTROL;
+import static org.apache.http.HttpHeaders.CONTENT_ENCODING;
+import static org.apache.http.HttpHeaders.CONTENT_LENGTH;
+import static org.apache.http.HttpHeaders.CONTENT_RANGE;
+import static org.apache.http.HttpHeaders.CONTENT_TYPE;
+import static org.apache.http.HttpHeaders.ETAG;
+import static org.apache.http.HttpHeaders.IF_NONE_MATCH;
+import static org.apache.http.HttpHeaders.RANGE;
+import static org.apache.http.HttpHeaders.RETRY_AFTER;
+import static org.apache.http.HttpHeaders.VARY;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.eclipse.edc.samples.common.FileTransferCommon.getFileContentFromRelativePath;
 import static org.eclipse.edc.samples.common.NegotiationCommon.runNegotiation;
 import static org.eclipse.edc.samples.common.PrerequisitesCommon.API_KEY_HEADER_KEY;
 import static org.eclipse.edc.samples.common.PrerequisitesCommon.API_KEY_HEADER_VALUE;
 import static org.eclipse.edc.samples.common.PrerequisitesCommon.CONSUMER_MANAGEMENT_URL;
+import static org.eclipse.edc.samples.common.PrerequisitesCommon.PROVIDER_MANAGEMENT_URL;
 import static org.eclipse.edc.samples.common.PrerequisitesCommon.getConsumer;
 import static org.eclipse.edc.samples.common.PrerequisitesCommon.getProvider;
+import static org.eclipse.edc.samples.util.TransferUtil.TIMEOUT;
 import static org.eclipse.edc.samples.util.TransferUtil.checkTransferStatus;
+import static org.eclipse.edc.samples.util.TransferUtil.post;
 import static org.eclipse.edc.samples.util.TransferUtil.startTransfer;
 import static org.hamcrest.Matchers.emptyString;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
 
 @EndToEndTest
 public class Transfer03httpProxyConsumerPullTest {
@@ -43,29 +80,102 @@ public class Transfer03httpProxyConsumerPullTest {
     private static final String SAMPLE_NAME = "transfer-03-consumer-pull";
     private static final String START_TRANSFER_FILE_PATH = "transfer/%s/resources/start-transfer.json".formatted(SAMPLE_NAME);
 
+    // the assets below are offered by their own contract definition, so they do not depend on the sample steps
+    private static final String PROXY_POLICY = """
+            {
+              "@context": {"@vocab": "https://w3id.org/edc/v0.0.1/ns/"},
+              "@id": "proxyPolicy",
+              "policy": {"@context": "http://www.w3.org/ns/odrl.jsonld", "@type": "Set", "permission": [], "prohibition": [], "obligation": []}
+            }
+            """;
+    private static final String PROXY_CONTRACT_DEFINITION = """
+            {
+              "@context": {"@vocab": "https://w3id.org/edc/v0.0.1/ns/"},
+              "@id": "proxyContractDefinition",
+              "accessPolicyId": "proxyPolicy",
+              "contractPolicyId": "proxyPolicy",
+              "assetsSelector": []
+            }
+            """;
+    private static final String PROXY_ASSET = """
+            {
+              "@context": {"@vocab": "https://w3id.org/edc/v0.0.1/ns/"},
+              "@id": "%s",
+              "properties": {"name": "proxy test asset"},
+              "dataAddress": {"type": "HttpData", "baseUrl": "%s", "proxyPath": "true"}
+            }
+            """;
+    private static final String FILE_ASSET_ID = "proxyFileAsset";
+    private static final String UPLOAD_ASSET_ID = "proxyUploadAsset";
+    private static final String CACHED_ASSET_ID = "proxyCachedAsset";
+    private static final String FAILING_ASSET_ID = "proxyFailingAsset";
+    private static final String PAYLOAD_FILE_NAME = "payload.txt";
+    // a textual payload bigger than the compression threshold
+    private static final String PAYLOAD = IntStream.range(0, 2000)
+            .mapToObj(i -> "line %d of the proxied payload\n".formatted(i))
+            .collect(Collectors.joining());
+
     @RegisterExtension
     static RuntimeExtension provider = getProvider(
             ":transfer:%s:provider-proxy-data-plane".formatted(SAMPLE_NAME),
-            "transfer/%s/resources/configuration/provider.properties".formatted(SAMPLE_NAME)
+            "transfer/%s/resources/configuration/provider.properties".formatted(SAMPLE_NAME),
+            Map.of("edc.dataplane.proxy.cache.enabled", "true",
+                    "edc.dataplane.proxy.cache.disk.path", createCacheDirectory().toString())
     );
 
     @RegisterExtension
     static RuntimeExtension consumer = getConsumer();
 
+    @TempDir
+    static Path payloadDirectory;
+
+    // every backend has its own port, and therefore its own circuit breaker
+    static MockWebServer uploadBackend = new MockWebServer();
+    static MockWebServer cachingBackend = new MockWebServer();
+    static MockWebServer failingBackend = new MockWebServer();
+
+    static JsonPath fileEdr;
+    static JsonPath uploadEdr;
+    static JsonPath cachedEdr;
+    static JsonPath failingEdr;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        Files.writeString(payloadDirectory.resolve(PAYLOAD_FILE_NAME), PAYLOAD);
+        uploadBackend.start();
+        cachingBackend.start();
+        failingBackend.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setResponseCode(HttpStatus.SC_SERVICE_UNAVAILABLE);
+            }
+        });
+        failingBackend.start();
+
+        post(PROVIDER_MANAGEMENT_URL + "/v3/policydefinitions", PROXY_POLICY);
+        post(PROVIDER_MANAGEMENT_URL + "/v3/contractdefinitions", PROXY_CONTRACT_DEFINITION);
+        post(PROVIDER_MANAGEMENT_URL + "/v3/assets", PROXY_ASSET.formatted(FILE_ASSET_ID, payloadDirectory.toUri()));
+        post(PROVIDER_MANAGEMENT_URL + "/v3/assets", PROXY_ASSET.formatted(UPLOAD_ASSET_ID, uploadBackend.url("/uploads")));
+        post(PROVIDER_MANAGEMENT_URL + "/v3/assets", PROXY_ASSET.formatted(CACHED_ASSET_ID, cachingBackend.url("/reports")));
+        post(PROVIDER_MANAGEMENT_URL + "/v3/assets", PROXY_ASSET.formatted(FAILING_ASSET_ID, failingBackend.url("/reports")));
+
+        fileEdr = startTransferAndGetEdr(runNegotiation(FILE_ASSET_ID));
+        uploadEdr = startTransferAndGetEdr(runNegotiation(UPLOAD_ASSET_ID));
+        cachedEdr = startTransferAndGetEdr(runNegotiation(CACHED_ASSET_ID));
+        failingEdr = startTransferAndGetEdr(runNegotiation(FAILING_ASSET_ID));
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        uploadBackend.shutdown();
+        cachingBackend.shutdown();
+        failingBackend.shutdown();
+    }
+
     @Test
     void runSampleSteps() {
-        var requestBody = getFileContentFromRelativePath(START_TRANSFER_FILE_PATH);
         var contractAgreementId = runNegotiation();
-        var transferProcessId = startTransfer(requestBody, contractAgreementId);
-        checkTransferStatus(transferProcessId, TransferProcessStates.STARTED);
-
-        var edr = given()
-                .when()
-                .get(CONSUMER_MANAGEMENT_URL + "/v3/edrs/{id}/dataaddress", transferProcessId)
-                .then()
-                .log().ifValidationFails()
-                .statusCode(200)
-                .extract().body().jsonPath();
+        var edr = startTransferAndGetEdr(contractAgreementId);
 
         var result = given()
                 .header(API_KEY_HEADER_KEY, API_KEY_HEADER_VALUE)
@@ -83,4 +193,190 @@ public class Transfer03httpProxyConsumerPullTest {
         assertThat(result).isEqualTo("Leanne Graham");
     }
 
+    @Test
+    void rangeRequest_isAnsweredWithPartialContent() {
+        var response = given()
+                .header(AUTHORIZATION, fileEdr.getString("authorization"))
+                .header(RANGE, "bytes=0-99")
+                .when()
+                .get(fileEdr.getString("endpoint") + "/" + PAYLOAD_FILE_NAME)
+                .then()
+                .log().ifValidationFails()
+                .statusCode(HttpStatus.SC_PARTIAL_CONTENT)
+                .extract();
+
+        assertThat(response.header(CONTENT_RANGE)).isEqualTo("bytes 0-99/" + PAYLOAD.length());
+        assertThat(response.asByteArray()).isEqualTo(PAYLOAD.substring(0, 100).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void conditionalRequest_isAnsweredWithNotModified() {
+        var etag = plainEtag();
+
+        given()
+                .header(AUTHORIZATION, fileEdr.getString("authorization"))
+                .header(ACCEPT_ENCODING, "identity")
+                .header(IF_NONE_MATCH, etag)
+                .when()
+                .get(fileEdr.getString("endpoint") + "/" + PAYLOAD_FILE_NAME)
+                .then()
+                .log().ifValidationFails()
+                .statusCode(HttpStatus.SC_NOT_MODIFIED);
+    }
+
+    @Test
+    void gzipRequest_isAnsweredWithCompressedRepresentation() {
+        var etag = plainEtag();
+
+        var response = given()
+                .header(AUTHORIZATION, fileEdr.getString("authorization"))
+                .header(ACCEPT_ENCODING, "gzip")
+                .when()
+                .get(fileEdr.getString("endpoint") + "/" + PAYLOAD_FILE_NAME)
+                .then()
+                .log().ifValidationFails()
+                .statusCode(HttpStatus.SC_OK)
+                .extract();
+
+        assertThat(response.header(CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.header(VARY)).contains(ACCEPT_ENCODING);
+        assertThat(response.header(ACCEPT_RANGES)).isNull();
+        // the backend tag is replaced, not joined by a second one
+        assertThat(response.headers().getValues(ETAG)).containsExactly(etag.substring(0, etag.length() - 1) + "-gzip\"");
+        assertThat(response.asString()).isEqualTo(PAYLOAD);
+    }
+
+    @Test
+    void uploads_areStreamedToTheBackend() throws InterruptedException {
+        var upload = new byte[1024 * 1024];
+        Arrays.fill(upload, (byte) 'x');
+        uploadBackend.enqueue(new MockResponse().setResponseCode(HttpStatus.SC_CREATED));
+        uploadBackend.enqueue(new MockResponse().setResponseCode(HttpStatus.SC_OK));
+
+        // a body of known length keeps it towards the backend
+        given()
+                .header(AUTHORIZATION, uploadEdr.getString("authorization"))
+                .header(CONTENT_TYPE, "application/octet-stream")
+                .body(upload)
+                .when()
+                .post(uploadEdr.getString("endpoint") + "/data.bin")
+                .then()
+                .log().ifValidationFails()
+                .statusCode(HttpStatus.SC_CREATED);
+
+        var created = uploadBackend.takeRequest(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        assertThat(created).isNotNull();
+        assertThat(created.getMethod()).isEqualTo("POST");
+        assertThat(created.getPath()).isEqualTo("/uploads/data.bin");
+        assertThat(created.getHeader(CONTENT_LENGTH)).isEqualTo(Integer.toString(upload.length));
+        assertThat(created.getBody().readByteArray()).isEqualTo(upload);
+
+        // a body streamed without length is forwarded in chunks
+        given()
+                .header(AUTHORIZATION, uploadEdr.getString("authorization"))
+                .header(CONTENT_TYPE, "application/octet-stream")
+                .body(new ByteArrayInputStream(upload))
+                .when()
+                .put(uploadEdr.getString("endpoint") + "/data.bin")
+                .then()
+                .log().ifValidationFails()
+                .statusCode(HttpStatus.SC_OK);
+
+        var replaced = uploadBackend.takeRequest(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        assertThat(replaced).isNotNull();
+        assertThat(replaced.getMethod()).isEqualTo("PUT");
+        assertThat(replaced.getPath()).isEqualTo("/uploads/data.bin");
+        assertThat(replaced.getHeader(CONTENT_TYPE)).isEqualTo("application/octet-stream");
+        assertThat(replaced.getBody().readByteArray()).isEqualTo(upload);
+    }
+
+    @Test
+    void freshResponses_areAnsweredFromTheCache() {
+        cachingBackend.enqueue(new MockResponse()
+                .setHeader(CONTENT_TYPE, "application/json")
+                .setHeader(CACHE_CONTROL, "max-age=60")
+                .setBody("{\"version\": 1}"));
+        cachingBackend.enqueue(new MockResponse()
+                .setHeader(CONTENT_TYPE, "application/json")
+                .setBody("{\"version\": 2}"));
+
+        for (var i = 0; i < 2; i++) {
+            var version = given()
+                    .header(AUTHORIZATION, cachedEdr.getString("authorization"))
+                    .when()
+                    .get(cachedEdr.getString("endpoint") + "/latest")
+                    .then()
+                    .log().ifValidationFails()
+                    .statusCode(HttpStatus.SC_OK)
+                    .extract()
+                    .jsonPath()
+                    .getInt("version");
+
+            assertThat(version).isEqualTo(1);
+        }
+        assertThat(cachingBackend.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void failingBackend_isNotContactedOnceItsCircuitIsOpen() {
+        // the failed attempts and their retries open the circuit, after which requests fail fast
+        await().atMost(TIMEOUT).untilAsserted(() -> given()
+                .header(AUTHORIZATION, failingEdr.getString("authorization"))
+                .when()
+                .get(failingEdr.getString("endpoint") + "/latest")
+                .then()
+                .statusCode(HttpStatus.SC_SERVICE_UNAVAILABLE)
+                .header(RETRY_AFTER, notNullValue()));
+        var sent = failingBackend.getRequestCount();
+
+        given()
+                .header(AUTHORIZATION, failingEdr.getString("authorization"))
+                .when()
+                .get(failingEdr.getString("endpoint") + "/latest")
+                .then()
+                .log().ifValidationFails()
+                .statusCode(HttpStatus.SC_SERVICE_UNAVAILABLE)
+                .header(RETRY_AFTER, notNullValue());
+
+        assertThat(failingBackend.getRequestCount()).isEqualTo(sent);
+    }
+
+    private static JsonPath startTransferAndGetEdr(String contractAgreementId) {
+        var requestBody = getFileContentFromRelativePath(START_TRANSFER_FILE_PATH);
+        var transferProcessId = startTransfer(requestBody, contractAgreementId);
+        checkTransferStatus(transferProcessId, TransferProcessStates.STARTED);
+
+        return given()
+                .when()
+                .get(CONSUMER_MANAGEMENT_URL + "/v3/edrs/{id}/dataaddress", transferProcessId)
+                .then()
+                .log().ifValidationFails()
+                .statusCode(200)
+                .extract().body().jsonPath();
+    }
+
+    private static Path createCacheDirectory() {
+        try {
+            return Files.createTempDirectory("proxy-cache");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the entity tag of the uncompressed payload.
+     */
+    private String plainEtag() {
+        return given()
+                .header(AUTHORIZATION, fileEdr.getString("authorization"))
+                .header(ACCEPT_ENCODING, "identity")
+                .when()
+                .get(fileEdr.getString("endpoint") + "/" + PAYLOAD_FILE_NAME)
+                .then()
+                .log().ifValidationFails()
+                .statusCode(HttpStatus.SC_OK)
+                .header(ETAG, not(emptyString()))
+                .extract()
+                .header(ETAG);
+    }
 }
@@ -22,6 +22,7 @@ plugins {
 dependencies {
     implementation(libs.edc.data.plane.spi)
     implementation(libs.edc.web.spi)
+    implementation(libs.opentelemetry.api)
 
     runtimeOnly(project(":transfer:transfer-00-prerequisites:connector"))
 }
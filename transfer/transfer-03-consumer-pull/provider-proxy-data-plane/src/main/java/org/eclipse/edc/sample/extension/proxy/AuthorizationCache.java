@@ -0,0 +1,170 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.proxy;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.eclipse.edc.connector.dataplane.spi.iam.DataPlaneAuthorizationService;
+import org.eclipse.edc.connector.dataplane.spi.store.AccessTokenDataStore;
+import org.eclipse.edc.spi.result.Result;
+import org.eclipse.edc.spi.types.domain.DataAddress;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Collections.emptyMap;
+
+/**
+ * Remembers the outcome of successful {@link DataPlaneAuthorizationService#authorize} calls, so that a consumer pulling
+ * the same EDR many times does not pay for a full token parse and signature verification on every request.
+ * <p>
+ * Entries are keyed by the SHA-256 hash of the token and live until the token expires (if it carries an {@code exp}
+ * claim) or until the configured time-to-live elapses. On every hit the access token data is looked up in the
+ * {@link AccessTokenDataStore}: once the transfer is terminated the data plane revokes it and the entry is evicted.
+ */
+class AuthorizationCache {
+
+    private static final String JWT_ID = "jti";
+    private static final String EXPIRATION_TIME = "exp";
+    private static final String ASSET_ID = "asset_id";
+    private static final String AGREEMENT_ID = "agreement_id";
+    private static final TypeReference<Map<String, Object>> CLAIMS_TYPE = new TypeReference<>() {
+    };
+
+    private final DataPlaneAuthorizationService authorizationService;
+    private final AccessTokenDataStore accessTokenDataStore;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final long timeToLive;
+    private final Map<String, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    AuthorizationCache(DataPlaneAuthorizationService authorizationService, AccessTokenDataStore accessTokenDataStore,
+                       ObjectMapper objectMapper, Clock clock, int maxSize, long timeToLive) {
+        this.authorizationService = authorizationService;
+        this.accessTokenDataStore = accessTokenDataStore;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.timeToLive = timeToLive;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    Result<Authorization> authorize(String token) {
+        var key = hash(token);
+        var now = clock.millis();
+
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+
+        if (entry != null) {
+            if (entry.expiresAt() > now && accessTokenDataStore.getById(entry.tokenId()) != null) {
+                hits.increment();
+                return Result.success(entry.authorization());
+            }
+            evict(key);
+        }
+
+        misses.increment();
+        var result = authorizationService.authorize(token, emptyMap());
+        if (result.failed()) {
+            return Result.failure(result.getFailureMessages());
+        }
+
+        var claims = readClaims(token);
+        var tokenId = claims.get(JWT_ID);
+        if (tokenId == null) {
+            return Result.success(new Authorization(result.getContent(), null, null));
+        }
+        var tokenData = accessTokenDataStore.getById(tokenId.toString());
+        var properties = tokenData != null ? tokenData.additionalProperties() : Map.<String, Object>of();
+        var authorization = new Authorization(result.getContent(), stringProperty(properties, ASSET_ID), stringProperty(properties, AGREEMENT_ID));
+        var expiresAt = now + timeToLive;
+        if (claims.get(EXPIRATION_TIME) instanceof Number exp) {
+            expiresAt = Math.min(expiresAt, exp.longValue() * 1000);
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry(authorization, tokenId.toString(), expiresAt));
+        }
+        return Result.success(authorization);
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    private String stringProperty(Map<String, Object> properties, String key) {
+        var value = properties.get(key);
+        return value != null ? value.toString() : null;
+    }
+
+    private void evict(String tokenHash) {
+        synchronized (entries) {
+            entries.remove(tokenHash);
+        }
+    }
+
+    /**
+     * Reads the claims of an already verified JWT, without checking the signature again.
+     */
+    private Map<String, Object> readClaims(String token) {
+        var parts = token.split("\\.");
+        if (parts.length < 2) {
+            return emptyMap();
+        }
+        try {
+            var payload = Base64.getUrlDecoder().decode(parts[1]);
+            return objectMapper.readValue(payload, CLAIMS_TYPE);
+        } catch (Exception e) {
+            return emptyMap();
+        }
+    }
+
+    private String hash(String token) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The source data address of an authorized token, and the ids of the transferred asset and of the contract agreement
+     * when they are known.
+     */
+    record Authorization(DataAddress dataAddress, String assetId, String agreementId) {
+    }
+
+    private record Entry(Authorization authorization, String tokenId, long expiresAt) {
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.proxy;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * One circuit breaker per backend host. After a number of consecutive failures (connection errors, timeouts or
+ * {@code 5xx} answers) the circuit opens and requests to the host fail fast. Once the open duration has elapsed a single
+ * probe request is let through: if it succeeds the circuit closes again, otherwise it stays open for another period.
+ */
+class BackendCircuitBreaker {
+
+    /**
+     * Circuit states, their ordinal is the value exported by the {@code edc.proxy.backend.circuit.state} metric.
+     */
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDuration;
+    private final LongSupplier nanoClock;
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the breaker. A {@code failureThreshold} of 0 disables it.
+     */
+    BackendCircuitBreaker(int failureThreshold, long openDurationMillis, LongSupplier nanoClock) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Whether a request to the host may be sent. Every allowed request must be followed by a call to
+     * {@link #onSuccess(String)}, {@link #onFailure(String)} or {@link #onAbandoned(String)}.
+     */
+    boolean tryAcquire(String host) {
+        return failureThreshold <= 0 || circuit(host).tryAcquire();
+    }
+
+    /**
+     * Number of seconds until the circuit of the host lets a probe request through.
+     */
+    long retryAfter(String host) {
+        return circuit(host).retryAfter();
+    }
+
+    void onSuccess(String host) {
+        if (failureThreshold > 0) {
+            circuit(host).onSuccess();
+        }
+    }
+
+    void onFailure(String host) {
+        if (failureThreshold > 0) {
+            circuit(host).onFailure();
+        }
+    }
+
+    /**
+     * Reports an allowed request that was never sent, e.g. because it timed out waiting for a connection. It does not
+     * count as a failure, but lets another probe request through if it was the probe.
+     */
+    void onAbandoned(String host) {
+        if (failureThreshold > 0) {
+            circuit(host).onAbandoned();
+        }
+    }
+
+    Map<String, State> states() {
+        var states = new HashMap<String, State>();
+        circuits.forEach((host, circuit) -> states.put(host, circuit.state()));
+        return states;
+    }
+
+    private Circuit circuit(String host) {
+        return circuits.computeIfAbsent(host, k -> new Circuit());
+    }
+
+    private final class Circuit {
+
+        private State state = State.CLOSED;
+        private int failures;
+        private long openedAt;
+        private boolean probing;
+
+        synchronized boolean tryAcquire() {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (nanoClock.getAsLong() - openedAt < openDuration) {
+                        return false;
+                    }
+                    state = State.HALF_OPEN;
+                    probing = true;
+                    return true;
+                default:
+                    if (probing) {
+                        return false;
+                    }
+                    probing = true;
+                    return true;
+            }
+        }
+
+        synchronized long retryAfter() {
+            if (state != State.OPEN) {
+                return 1;
+            }
+            var remaining = openDuration - (nanoClock.getAsLong() - openedAt);
+            return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remaining + TimeUnit.SECONDS.toNanos(1) - 1));
+        }
+
+        synchronized void onSuccess() {
+            if (state == State.OPEN) {
+                // late answer of a request sent before the circuit opened
+                return;
+            }
+            state = State.CLOSED;
+            failures = 0;
+            probing = false;
+        }
+
+        synchronized void onFailure() {
+            if (state == State.OPEN) {
+                return;
+            }
+            probing = false;
+            if (state == State.HALF_OPEN || ++failures >= failureThreshold) {
+                state = State.OPEN;
+                openedAt = nanoClock.getAsLong();
+                failures = 0;
+            }
+        }
+
+        synchronized void onAbandoned() {
+            if (state == State.HALF_OPEN) {
+                probing = false;
+            }
+        }
+
+        synchronized State state() {
+            return state;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.proxy;
+
+import org.eclipse.edc.spi.EdcException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Sends the proxied requests to the backends. On top of the per-host connection cap, every host gets a circuit breaker
+ * so that a failing backend is answered immediately instead of after the read timeout. Idempotent requests are retried
+ * on connection errors and {@code 502}/{@code 503}/{@code 504} answers, with an exponential backoff and full jitter, and
+ * can optionally be hedged: when the backend has not answered within its observed p95 latency, a second request is sent
+ * and the first answer wins.
+ */
+class BackendClient {
+
+    private static final int LATENCY_SAMPLES = 256;
+    private static final int LATENCY_MIN_SAMPLES = 32;
+
+    private final HttpClient httpClient;
+    private final BackendConnectionLimiter connectionLimiter;
+    private final BackendCircuitBreaker circuitBreaker;
+    private final ProxyMetrics metrics;
+    private final int maxRetries;
+    private final long retryBackoff;
+    private final boolean hedging;
+    private final long minHedgeDelay;
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    BackendClient(HttpClient httpClient, BackendConnectionLimiter connectionLimiter, BackendCircuitBreaker circuitBreaker, ProxyMetrics metrics,
+                  int maxRetries, long retryBackoffMillis, boolean hedging, long minHedgeDelayMillis) {
+        this.httpClient = httpClient;
+        this.connectionLimiter = connectionLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.metrics = metrics;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = retryBackoffMillis;
+        this.hedging = hedging;
+        this.minHedgeDelay = TimeUnit.MILLISECONDS.toNanos(minHedgeDelayMillis);
+    }
+
+    /**
+     * Sends the request. Only idempotent requests are retried and hedged, requests with a body are sent exactly once
+     * since their body can only be read once. Cancelling the returned future abandons the request: if it is still
+     * waiting for a connection it is not sent, and an answer received afterwards is discarded.
+     */
+    CompletableFuture<Exchange> send(HttpRequest request, boolean idempotent) {
+        var result = new CompletableFuture<Exchange>();
+        (idempotent ? sendWithRetry(request, 0, result) : attempt(request, result))
+                .whenComplete((exchange, throwable) -> {
+                    if (exchange == null) {
+                        result.completeExceptionally(throwable);
+                    } else if (!result.complete(exchange)) {
+                        exchange.discard();
+                    }
+                });
+        return result;
+    }
+
+    private CompletableFuture<Exchange> sendWithRetry(HttpRequest request, int retry, CompletableFuture<?> caller) {
+        return hedged(request, caller)
+                .handle((exchange, throwable) -> {
+                    if (retry >= maxRetries || caller.isDone() || !isRetryable(exchange, throwable)) {
+                        return exchange != null ? CompletableFuture.completedFuture(exchange) : CompletableFuture.<Exchange>failedFuture(throwable);
+                    }
+                    if (exchange != null) {
+                        exchange.discard();
+                    }
+                    metrics.backendRetry(request.uri().getAuthority());
+                    var delay = ThreadLocalRandom.current().nextLong(retryBackoff * (1L << retry) + 1);
+                    var delayed = CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS);
+                    return CompletableFuture.runAsync(() -> { }, delayed).thenCompose(v -> sendWithRetry(request, retry + 1, caller));
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private boolean isRetryable(Exchange exchange, Throwable throwable) {
+        if (exchange != null) {
+            var status = exchange.response().statusCode();
+            return status == 502 || status == 503 || status == 504;
+        }
+        var cause = unwrap(throwable);
+        // a timed out backend is not asked again: the consumer already waited for the whole read timeout
+        return cause instanceof IOException && !(cause instanceof HttpTimeoutException);
+    }
+
+    private CompletableFuture<Exchange> hedged(HttpRequest request, CompletableFuture<?> caller) {
+        var primary = attempt(request, caller);
+        var delay = hedging ? latency(request.uri().getAuthority()).hedgeDelay() : -1;
+        if (delay < 0) {
+            return primary;
+        }
+
+        var result = new CompletableFuture<Exchange>();
+        var pending = new AtomicInteger(1);
+        BiConsumer<Exchange, Throwable> settle = (exchange, throwable) -> {
+            var remaining = pending.decrementAndGet();
+            if (exchange != null) {
+                if (!result.complete(exchange)) {
+                    // the other request was faster
+                    exchange.discard();
+                }
+            } else if (remaining == 0) {
+                result.completeExceptionally(throwable);
+            }
+        };
+        primary.whenComplete(settle);
+        CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> {
+            if (!result.isDone() && !caller.isDone()) {
+                pending.incrementAndGet();
+                metrics.backendHedge(request.uri().getAuthority());
+                attempt(request, caller).whenComplete(settle);
+            }
+        });
+        return result;
+    }
+
+    private CompletableFuture<Exchange> attempt(HttpRequest request, CompletableFuture<?> caller) {
+        var host = request.uri().getAuthority();
+        if (!circuitBreaker.tryAcquire(host)) {
+            return CompletableFuture.failedFuture(new BackendUnavailableException(host, circuitBreaker.retryAfter(host)));
+        }
+        var queued = System.nanoTime();
+        var acquisition = connectionLimiter.acquire(request.uri());
+        // a caller that gives up leaves the connection queue right away instead of waiting for its turn or its timeout
+        caller.whenComplete((r, t) -> acquisition.cancel(false));
+        return acquisition
+                .whenComplete((permit, throwable) -> {
+                    if (throwable != null) {
+                        // the request was never sent, the backend is not to blame
+                        circuitBreaker.onAbandoned(host);
+                    }
+                })
+                .thenCompose(permit -> {
+                    if (caller.isDone()) {
+                        permit.release();
+                        circuitBreaker.onAbandoned(host);
+                        return CompletableFuture.failedFuture(new CancellationException("The request was abandoned while waiting for a connection"));
+                    }
+                    var start = System.nanoTime();
+                    metrics.phase(ProxyMetrics.Phase.CONNECT, start - queued);
+                    return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                            .handle((response, throwable) -> {
+                                var elapsed = System.nanoTime() - start;
+                                if (throwable != null) {
+                                    permit.release();
+                                    circuitBreaker.onFailure(host);
+                                    metrics.backendResponse(host, elapsed, 0);
+                                    throw throwable instanceof CompletionException completion ? completion : new CompletionException(throwable);
+                                }
+                                if (response.statusCode() >= 500) {
+                                    circuitBreaker.onFailure(host);
+                                } else {
+                                    circuitBreaker.onSuccess(host);
+                                    latency(host).record(elapsed);
+                                }
+                                metrics.phase(ProxyMetrics.Phase.FIRST_BYTE, elapsed);
+                                metrics.backendResponse(host, elapsed, response.statusCode());
+                                return new Exchange(response, permit);
+                            });
+                });
+    }
+
+    private LatencyWindow latency(String host) {
+        return latencies.computeIfAbsent(host, k -> new LatencyWindow());
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
+
+    /**
+     * A backend response together with the connection permit, which is released once the body has been consumed.
+     */
+    record Exchange(HttpResponse<InputStream> response, BackendConnectionLimiter.Permit permit) {
+
+        void discard() {
+            try {
+                response.body().close();
+            } catch (IOException ignored) {
+                // the connection is dropped anyway
+            } finally {
+                permit.release();
+            }
+        }
+    }
+
+    /**
+     * Raised without contacting the backend when its circuit is open.
+     */
+    static class BackendUnavailableException extends EdcException {
+
+        private final long retryAfter;
+
+        BackendUnavailableException(String host, long retryAfter) {
+            super("Backend " + host + " is unavailable");
+            this.retryAfter = retryAfter;
+        }
+
+        long retryAfter() {
+            return retryAfter;
+        }
+    }
+
+    /**
+     * The latest response times of a host, used to estimate its p95 latency.
+     */
+    private final class LatencyWindow {
+
+        private final long[] samples = new long[LATENCY_SAMPLES];
+        private int count;
+        private long percentile95 = -1;
+
+        synchronized void record(long nanos) {
+            samples[count % LATENCY_SAMPLES] = nanos;
+            count++;
+            // sorting the window on every sample would be wasteful, the estimate is refreshed periodically instead
+            if (count >= LATENCY_MIN_SAMPLES && count % LATENCY_MIN_SAMPLES == 0) {
+                var sorted = Arrays.copyOf(samples, Math.min(count, LATENCY_SAMPLES));
+                Arrays.sort(sorted);
+                percentile95 = sorted[(int) Math.ceil(sorted.length * 0.95) - 1];
+            }
+        }
+
+        synchronized long hedgeDelay() {
+            return percentile95 < 0 ? -1 : Math.max(percentile95, minHedgeDelay);
+        }
+    }
+}
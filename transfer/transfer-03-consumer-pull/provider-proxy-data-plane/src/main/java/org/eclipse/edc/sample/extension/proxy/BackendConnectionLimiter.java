@@ -0,0 +1,172 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.proxy;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Caps the number of requests in flight against a single backend host, and optionally across all backend hosts. Callers
+ * that exceed a cap are not blocked, they get a future that completes as soon as a permit is released, or fails with a
+ * {@link TimeoutException} when no permit became available within the queue timeout. Cancelling the future gives up
+ * the place in the queue.
+ */
+class BackendConnectionLimiter {
+
+    private final int maxConnectionsPerHost;
+    private final long queueTimeout;
+    private final HostPermits global;
+    private final Map<String, HostPermits> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the limiter. A {@code maxConnections} of 0 leaves the total number of requests uncapped.
+     */
+    BackendConnectionLimiter(int maxConnections, int maxConnectionsPerHost, Duration queueTimeout) {
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.queueTimeout = queueTimeout.toNanos();
+        this.global = maxConnections > 0 ? new HostPermits(maxConnections) : null;
+    }
+
+    CompletableFuture<Permit> acquire(URI uri) {
+        var hostPermit = hosts.computeIfAbsent(uri.getAuthority(), k -> new HostPermits(maxConnectionsPerHost)).acquire(null);
+        if (global == null) {
+            return hostPermit;
+        }
+
+        // the host permit is taken first, so that requests queued for a saturated host do not hold global permits. The
+        // stages are chained by hand: a cancelled thenCompose would never release the host permit it was waiting for
+        var result = new CompletableFuture<Permit>();
+        var pending = new AtomicReference<>(hostPermit);
+        hostPermit.whenComplete((permit, throwable) -> {
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+                return;
+            }
+            var globalPermit = global.acquire(permit);
+            pending.set(globalPermit);
+            globalPermit.whenComplete((acquired, failure) -> {
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else if (!result.complete(acquired)) {
+                    acquired.release();
+                }
+            });
+        });
+        result.whenComplete((permit, throwable) -> {
+            if (throwable != null) {
+                pending.get().cancel(false);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * A permit for a single backend connection. Releasing it more than once has no effect.
+     */
+    static final class Permit {
+
+        private final HostPermits owner;
+        private final Permit parent;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(HostPermits owner, Permit parent) {
+            this.owner = owner;
+            this.parent = parent;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                try {
+                    owner.release();
+                } finally {
+                    if (parent != null) {
+                        parent.release();
+                    }
+                }
+            }
+        }
+    }
+
+    private record Waiter(CompletableFuture<Permit> future, Permit parent) {
+    }
+
+    private final class HostPermits {
+
+        private final int maxPermits;
+        private final Queue<Waiter> waiting = new ArrayDeque<>();
+        private int inFlight;
+
+        HostPermits(int maxPermits) {
+            this.maxPermits = maxPermits;
+        }
+
+        CompletableFuture<Permit> acquire(Permit parent) {
+            synchronized (this) {
+                if (inFlight >= maxPermits) {
+                    var waiter = new Waiter(new CompletableFuture<>(), parent);
+                    waiting.add(waiter);
+                    waiter.future().orTimeout(queueTimeout, TimeUnit.NANOSECONDS)
+                            .whenComplete((permit, throwable) -> {
+                                if (throwable != null) {
+                                    abandon(waiter);
+                                }
+                            });
+                    return waiter.future();
+                }
+                inFlight++;
+            }
+            return CompletableFuture.completedFuture(new Permit(this, parent));
+        }
+
+        void release() {
+            while (true) {
+                Waiter next;
+                synchronized (this) {
+                    next = waiting.poll();
+                    if (next == null) {
+                        inFlight--;
+                        return;
+                    }
+                }
+                // the permit is handed over directly, so the in-flight count stays the same. A waiter that timed out
+                // or was cancelled in the meantime does not take it, it goes to the next one
+                if (next.future().complete(new Permit(this, next.parent()))) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Removes a waiter that timed out or was cancelled, releasing the permit it already holds on the parent level.
+         */
+        private void abandon(Waiter waiter) {
+            synchronized (this) {
+                waiting.remove(waiter);
+            }
+            if (waiter.parent() != null) {
+                waiter.parent().release();
+            }
+        }
+    }
+}
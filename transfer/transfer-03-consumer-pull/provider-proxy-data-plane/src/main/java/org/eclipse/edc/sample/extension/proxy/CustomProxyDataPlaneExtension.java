@@ -14,19 +14,32 @@
 
 package org.eclipse.edc.sample.extension.proxy;
 
+import io.opentelemetry.api.GlobalOpenTelemetry;
 import org.eclipse.edc.connector.dataplane.spi.Endpoint;
 import org.eclipse.edc.connector.dataplane.spi.iam.DataPlaneAuthorizationService;
 import org.eclipse.edc.connector.dataplane.spi.iam.PublicEndpointGeneratorService;
+import org.eclipse.edc.connector.dataplane.spi.store.AccessTokenDataStore;
 import org.eclipse.edc.runtime.metamodel.annotation.Configuration;
 import org.eclipse.edc.runtime.metamodel.annotation.Inject;
 import org.eclipse.edc.runtime.metamodel.annotation.Setting;
 import org.eclipse.edc.runtime.metamodel.annotation.Settings;
+import org.eclipse.edc.spi.EdcException;
+import org.eclipse.edc.spi.monitor.Monitor;
+import org.eclipse.edc.spi.system.ExecutorInstrumentation;
 import org.eclipse.edc.spi.system.ServiceExtension;
 import org.eclipse.edc.spi.system.ServiceExtensionContext;
+import org.eclipse.edc.spi.types.TypeManager;
 import org.eclipse.edc.web.spi.WebService;
 import org.eclipse.edc.web.spi.configuration.PortMapping;
 import org.eclipse.edc.web.spi.configuration.PortMappingRegistry;
 
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 public class CustomProxyDataPlaneExtension implements ServiceExtension {
 
     private static final int DEFAULT_PUBLIC_PORT = 8185;
@@ -34,6 +47,18 @@ public class CustomProxyDataPlaneExtension implements ServiceExtension {
 
     @Configuration
     private PublicApiConfiguration apiConfiguration;
+    @Configuration
+    private ProxyClientConfiguration clientConfiguration;
+    @Configuration
+    private AuthorizationCacheConfiguration authorizationCacheConfiguration;
+    @Configuration
+    private ResponseCacheConfiguration responseCacheConfiguration;
+    @Configuration
+    private RateLimitConfiguration rateLimitConfiguration;
+    @Configuration
+    private CompressionConfiguration compressionConfiguration;
+    @Configuration
+    private BackendResilienceConfiguration resilienceConfiguration;
     @Setting(description = "Base url of the public API endpoint without the trailing slash. This should point to the public endpoint configured.",
             key = "edc.dataplane.proxy.public.endpoint")
     private String proxyPublicEndpoint;
@@ -46,6 +71,17 @@ public class CustomProxyDataPlaneExtension implements ServiceExtension {
     private WebService webService;
     @Inject
     private DataPlaneAuthorizationService authorizationService;
+    @Inject
+    private AccessTokenDataStore accessTokenDataStore;
+    @Inject
+    private ExecutorInstrumentation executorInstrumentation;
+    @Inject
+    private TypeManager typeManager;
+    @Inject
+    private Clock clock;
+
+    private ExecutorService clientExecutor;
+    private ExecutorService streamingExecutor;
 
     @Override
     public void initialize(ServiceExtensionContext context) {
@@ -53,7 +89,78 @@ public class CustomProxyDataPlaneExtension implements ServiceExtension {
 
         generatorService.addGeneratorFunction("HttpData", dataAddress -> Endpoint.url(proxyPublicEndpoint));
 
-        webService.registerResource("public", new ProxyController(authorizationService));
+        var virtualThreads = clientConfiguration.virtualThreads() ? createVirtualThreadExecutor(context.getMonitor()) : null;
+        clientExecutor = executorInstrumentation.instrument(virtualThreads != null ? virtualThreads : Executors.newFixedThreadPool(clientConfiguration.threads()),
+                "proxy-client");
+        // streaming a payload blocks a thread for the whole transfer, so it must not run on the bounded client pool. The
+        // number of concurrent transfers is bounded by the connection caps instead
+        streamingExecutor = virtualThreads != null ? clientExecutor : executorInstrumentation.instrument(Executors.newCachedThreadPool(), "proxy-streaming");
+        var httpClient = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .version(clientConfiguration.http2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(clientConfiguration.connectTimeout()))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        // a request queued for a connection waits at most as long as the backend is given to answer
+        var connectionLimiter = new BackendConnectionLimiter(clientConfiguration.maxConnections(), clientConfiguration.maxConnectionsPerHost(),
+                Duration.ofMillis(clientConfiguration.readTimeout()));
+        var authorizationCache = new AuthorizationCache(authorizationService, accessTokenDataStore, typeManager.getMapper(), clock,
+                authorizationCacheConfiguration.maxSize(), authorizationCacheConfiguration.timeToLive());
+
+        if (responseCacheConfiguration.entryMaxSize() > ResponseCache.MAX_ENTRY_SIZE) {
+            throw new EdcException("edc.dataplane.proxy.cache.entry.max.size must not exceed %d bytes".formatted(ResponseCache.MAX_ENTRY_SIZE));
+        }
+        var responseCache = new ResponseCache(responseCacheConfiguration.enabled(), clock, context.getMonitor(),
+                Path.of(responseCacheConfiguration.directory()), responseCacheConfiguration.memorySize(), responseCacheConfiguration.diskSize(),
+                responseCacheConfiguration.memoryEntryMaxSize(), responseCacheConfiguration.entryMaxSize());
+
+        var metrics = new ProxyMetrics(GlobalOpenTelemetry.getMeter("org.eclipse.edc.sample.proxy"));
+        var circuitBreaker = new BackendCircuitBreaker(resilienceConfiguration.failureThreshold(), resilienceConfiguration.openDuration(), System::nanoTime);
+        metrics.observe(circuitBreaker);
+        metrics.observe(authorizationCache);
+        var backendClient = new BackendClient(httpClient, connectionLimiter, circuitBreaker, metrics,
+                resilienceConfiguration.maxRetries(), resilienceConfiguration.retryBackoff(),
+                resilienceConfiguration.hedging(), resilienceConfiguration.minHedgeDelay());
+        var compression = new ResponseCompression(compressionConfiguration.enabled(), compressionConfiguration.level(), compressionConfiguration.minSize(), metrics);
+
+        var controller = ProxyController.Builder.newInstance()
+                .authorizationCache(authorizationCache)
+                .backendClient(backendClient)
+                .responseCache(responseCache)
+                .metrics(metrics)
+                .rateLimiter(new ProxyRateLimiter(rateLimitConfiguration.rate(), rateLimitConfiguration.burst(),
+                        rateLimitConfiguration.maxInFlight(), System::nanoTime))
+                .compression(compression)
+                .readTimeout(Duration.ofMillis(clientConfiguration.readTimeout()))
+                .responseTimeout(Duration.ofMillis(clientConfiguration.responseTimeout()))
+                .streamBufferSize(clientConfiguration.streamBufferSize())
+                .streamingExecutor(streamingExecutor)
+                .build();
+        webService.registerResource("public", controller);
+    }
+
+    @Override
+    public void shutdown() {
+        if (clientExecutor != null) {
+            clientExecutor.shutdownNow();
+        }
+        if (streamingExecutor != null) {
+            streamingExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates a virtual thread per task executor, running both the backend client and the streaming of the payloads,
+     * or returns null when the Java runtime does not support virtual threads.
+     */
+    private ExecutorService createVirtualThreadExecutor(Monitor monitor) {
+        try {
+            // virtual threads need Java 21, while the samples are compiled for Java 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            monitor.warning("Virtual threads are not supported by this Java runtime, the proxy will use platform threads");
+            return null;
+        }
     }
 
     @Settings
@@ -65,4 +172,98 @@ public class CustomProxyDataPlaneExtension implements ServiceExtension {
     ) {
 
     }
+
+    @Settings
+    record ProxyClientConfiguration(
+            @Setting(key = "edc.dataplane.proxy.client.threads", description = "Number of threads of the http client used by the proxy to talk to the backends. Payloads are streamed on separate threads", defaultValue = "16")
+            int threads,
+            @Setting(key = "edc.dataplane.proxy.client.virtual.threads", description = "Whether the proxy should talk to the backends and stream payloads on virtual threads (Java 21+) instead of a thread pool", defaultValue = "false")
+            boolean virtualThreads,
+            @Setting(key = "edc.dataplane.proxy.client.connections", description = "Maximum number of concurrent requests against all backends, further requests are queued. 0 means unlimited", defaultValue = "1024")
+            int maxConnections,
+            @Setting(key = "edc.dataplane.proxy.client.connections.per.host", description = "Maximum number of concurrent requests against a single backend host, further requests are queued", defaultValue = "64")
+            int maxConnectionsPerHost,
+            @Setting(key = "edc.dataplane.proxy.client.http2", description = "Whether the proxy should prefer HTTP/2 when talking to the backends", defaultValue = "true")
+            boolean http2,
+            @Setting(key = "edc.dataplane.proxy.client.connect.timeout", description = "Backend connect timeout in milliseconds", defaultValue = "5000")
+            long connectTimeout,
+            @Setting(key = "edc.dataplane.proxy.client.read.timeout", description = "Backend response timeout in milliseconds", defaultValue = "30000")
+            long readTimeout,
+            @Setting(key = "edc.dataplane.proxy.response.timeout", description = "Time in milliseconds a consumer waits for the backend answer, including queueing for a connection and retries, before getting a 504", defaultValue = "60000")
+            long responseTimeout,
+            @Setting(key = "edc.dataplane.proxy.stream.buffer.size", description = "Size in bytes of the buffer used to stream payloads to the consumer", defaultValue = "65536")
+            int streamBufferSize
+    ) {
+
+    }
+
+    @Settings
+    record AuthorizationCacheConfiguration(
+            @Setting(key = "edc.dataplane.proxy.auth.cache.size", description = "Maximum number of authorized tokens kept in memory, 0 disables the cache", defaultValue = "10000")
+            int maxSize,
+            @Setting(key = "edc.dataplane.proxy.auth.cache.ttl", description = "Time in milliseconds an authorized token is trusted before being verified again", defaultValue = "60000")
+            long timeToLive
+    ) {
+
+    }
+
+    @Settings
+    record ResponseCacheConfiguration(
+            @Setting(key = "edc.dataplane.proxy.cache.enabled", description = "Whether backend responses should be cached by the proxy", defaultValue = "false")
+            boolean enabled,
+            @Setting(key = "edc.dataplane.proxy.cache.memory.size", description = "Maximum size in bytes of the in-memory cache tier", defaultValue = "67108864")
+            long memorySize,
+            @Setting(key = "edc.dataplane.proxy.cache.disk.size", description = "Maximum size in bytes of the memory-mapped disk cache tier", defaultValue = "1073741824")
+            long diskSize,
+            @Setting(key = "edc.dataplane.proxy.cache.disk.path", description = "Directory of the disk cache tier", defaultValue = "proxy-cache")
+            String directory,
+            @Setting(key = "edc.dataplane.proxy.cache.memory.entry.max.size", description = "Responses up to this size in bytes are kept in memory, bigger ones on disk", defaultValue = "1048576")
+            long memoryEntryMaxSize,
+            @Setting(key = "edc.dataplane.proxy.cache.entry.max.size", description = "Responses bigger than this size in bytes are never cached, at most 2147483647", defaultValue = "268435456")
+            long entryMaxSize
+    ) {
+
+    }
+
+    @Settings
+    record RateLimitConfiguration(
+            @Setting(key = "edc.dataplane.proxy.ratelimit.rate", description = "Default number of requests per second allowed for every asset, 0 means unlimited", defaultValue = "0")
+            double rate,
+            @Setting(key = "edc.dataplane.proxy.ratelimit.burst", description = "Default number of requests that can exceed the rate in a burst", defaultValue = "1")
+            int burst,
+            @Setting(key = "edc.dataplane.proxy.ratelimit.max.inflight", description = "Default maximum number of concurrent requests for every asset, 0 means unlimited", defaultValue = "0")
+            int maxInFlight
+    ) {
+
+    }
+
+    @Settings
+    record CompressionConfiguration(
+            @Setting(key = "edc.dataplane.proxy.compression.enabled", description = "Whether textual payloads should be gzip-compressed for consumers that accept it", defaultValue = "true")
+            boolean enabled,
+            @Setting(key = "edc.dataplane.proxy.compression.level", description = "Deflate level used to compress payloads, from 1 (fastest) to 9 (smallest)", defaultValue = "6")
+            int level,
+            @Setting(key = "edc.dataplane.proxy.compression.min.size", description = "Payloads with a known size below this number of bytes are sent uncompressed", defaultValue = "1024")
+            long minSize
+    ) {
+
+    }
+
+    @Settings
+    record BackendResilienceConfiguration(
+            @Setting(key = "edc.dataplane.proxy.breaker.failure.threshold", description = "Consecutive failures after which requests to a backend host fail fast, 0 disables the circuit breaker", defaultValue = "5")
+            int failureThreshold,
+            @Setting(key = "edc.dataplane.proxy.breaker.open.duration", description = "Time in milliseconds a backend host is not contacted after its circuit opened", defaultValue = "30000")
+            long openDuration,
+            @Setting(key = "edc.dataplane.proxy.retry.max", description = "Maximum number of retries of a failed GET request", defaultValue = "2")
+            int maxRetries,
+            @Setting(key = "edc.dataplane.proxy.retry.backoff", description = "Base delay in milliseconds between retries, doubled on every retry and randomized", defaultValue = "100")
+            long retryBackoff,
+            @Setting(key = "edc.dataplane.proxy.hedge.enabled", description = "Whether a GET request is sent a second time when the backend is slower than its p95 latency", defaultValue = "false")
+            boolean hedging,
+            @Setting(key = "edc.dataplane.proxy.hedge.min.delay", description = "Minimum delay in milliseconds before a hedged request is sent", defaultValue = "50")
+            long minHedgeDelay
+    ) {
+
+    }
 }
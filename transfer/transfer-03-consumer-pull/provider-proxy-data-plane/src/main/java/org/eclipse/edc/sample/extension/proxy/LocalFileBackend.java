@@ -0,0 +1,191 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.proxy;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.core.Response;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import static jakarta.ws.rs.core.HttpHeaders.CONTENT_LENGTH;
+import static jakarta.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static jakarta.ws.rs.core.HttpHeaders.ETAG;
+import static jakarta.ws.rs.core.HttpHeaders.IF_MODIFIED_SINCE;
+import static jakarta.ws.rs.core.HttpHeaders.IF_NONE_MATCH;
+import static jakarta.ws.rs.core.HttpHeaders.LAST_MODIFIED;
+import static jakarta.ws.rs.core.MediaType.APPLICATION_OCTET_STREAM;
+import static jakarta.ws.rs.core.Response.Status.BAD_GATEWAY;
+import static jakarta.ws.rs.core.Response.Status.NOT_FOUND;
+import static jakarta.ws.rs.core.Response.Status.NOT_MODIFIED;
+import static jakarta.ws.rs.core.Response.Status.PARTIAL_CONTENT;
+import static jakarta.ws.rs.core.Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE;
+import static org.eclipse.edc.sample.extension.proxy.ProxyHeaders.ACCEPT_RANGES;
+import static org.eclipse.edc.sample.extension.proxy.ProxyHeaders.CONTENT_RANGE;
+import static org.eclipse.edc.sample.extension.proxy.ProxyHeaders.IF_RANGE;
+import static org.eclipse.edc.sample.extension.proxy.ProxyHeaders.RANGE;
+
+/**
+ * Serves {@code HttpData} addresses whose {@code baseUrl} points to a local directory ({@code file:} scheme), with
+ * support for single byte ranges and conditional requests.
+ */
+class LocalFileBackend {
+
+    private static final String BYTES_UNIT = "bytes";
+
+    Response get(String baseUrl, String path, ContainerRequestContext requestContext) {
+        Path base;
+        try {
+            base = Paths.get(URI.create(baseUrl)).normalize();
+        } catch (IllegalArgumentException | FileSystemNotFoundException e) {
+            // e.g. a non-hierarchical "file:data" url: the address of the asset is wrong, not the consumer request
+            return Response.status(BAD_GATEWAY).build();
+        }
+        Path file;
+        try {
+            file = base.resolve(path).normalize();
+        } catch (InvalidPathException e) {
+            return Response.status(NOT_FOUND).build();
+        }
+        if (!file.startsWith(base) || !Files.isRegularFile(file)) {
+            return Response.status(NOT_FOUND).build();
+        }
+
+        long size;
+        Instant lastModified;
+        try {
+            size = Files.size(file);
+            lastModified = Files.getLastModifiedTime(file).toInstant();
+        } catch (IOException e) {
+            return Response.status(NOT_FOUND).build();
+        }
+        var etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified.toEpochMilli()) + "\"";
+        var lastModifiedHeader = DateTimeFormatter.RFC_1123_DATE_TIME.format(lastModified.atZone(ZoneOffset.UTC));
+
+        if (notModified(requestContext, etag, lastModified)) {
+            return Response.status(NOT_MODIFIED)
+                    .header(ETAG, etag)
+                    .header(LAST_MODIFIED, lastModifiedHeader)
+                    .build();
+        }
+
+        var response = Response.ok()
+                .header(CONTENT_TYPE, contentType(file))
+                .header(ETAG, etag)
+                .header(LAST_MODIFIED, lastModifiedHeader)
+                .header(ACCEPT_RANGES, BYTES_UNIT);
+
+        var range = requestContext.getHeaderString(RANGE);
+        var ifRange = requestContext.getHeaderString(IF_RANGE);
+        if (range == null || (ifRange != null && !ifRange.equals(etag) && !ifRange.equals(lastModifiedHeader))) {
+            return response.header(CONTENT_LENGTH, size)
+                    .entity(ProxyStreamingOutput.ofFile(file, 0, size, () -> { }))
+                    .build();
+        }
+
+        var byteRange = ByteRange.parse(range, size);
+        if (byteRange == null) {
+            // multiple or malformed ranges are not supported, serve the whole file as allowed by RFC 9110
+            return response.header(CONTENT_LENGTH, size)
+                    .entity(ProxyStreamingOutput.ofFile(file, 0, size, () -> { }))
+                    .build();
+        }
+        if (!byteRange.satisfiable(size)) {
+            return Response.status(REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(CONTENT_RANGE, BYTES_UNIT + " */" + size)
+                    .build();
+        }
+
+        return response.status(PARTIAL_CONTENT)
+                .header(CONTENT_RANGE, "%s %d-%d/%d".formatted(BYTES_UNIT, byteRange.first(), byteRange.last(), size))
+                .header(CONTENT_LENGTH, byteRange.length())
+                .entity(ProxyStreamingOutput.ofFile(file, byteRange.first(), byteRange.length(), () -> { }))
+                .build();
+    }
+
+    private boolean notModified(ContainerRequestContext requestContext, String etag, Instant lastModified) {
+        var ifNoneMatch = requestContext.getHeaderString(IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return ifNoneMatch.trim().equals("*") || ifNoneMatch.contains(etag);
+        }
+        var ifModifiedSince = requestContext.getHeaderString(IF_MODIFIED_SINCE);
+        if (ifModifiedSince != null) {
+            try {
+                var since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                return lastModified.getEpochSecond() <= since.getEpochSecond();
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private String contentType(Path file) {
+        try {
+            var contentType = Files.probeContentType(file);
+            return contentType != null ? contentType : APPLICATION_OCTET_STREAM;
+        } catch (IOException e) {
+            return APPLICATION_OCTET_STREAM;
+        }
+    }
+
+    /**
+     * A single {@code bytes=first-last} range, with the last position already capped to the size of the resource.
+     */
+    private record ByteRange(long first, long last) {
+
+        static ByteRange parse(String header, long size) {
+            if (!header.startsWith(BYTES_UNIT + "=") || header.contains(",")) {
+                return null;
+            }
+            var spec = header.substring(BYTES_UNIT.length() + 1).trim();
+            var dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            try {
+                var start = spec.substring(0, dash).trim();
+                var end = spec.substring(dash + 1).trim();
+                if (start.isEmpty()) {
+                    // suffix range: the last N bytes
+                    return new ByteRange(Math.max(0, size - Long.parseLong(end)), size - 1);
+                }
+                var first = Long.parseLong(start);
+                var last = end.isEmpty() ? size - 1 : Long.parseLong(end);
+                return last < first ? null : new ByteRange(first, Math.min(last, size - 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        boolean satisfiable(long size) {
+            return first < size && first <= last;
+        }
+
+        long length() {
+            return last - first + 1;
+        }
+    }
+}
@@ -15,27 +15,57 @@
 package org.eclipse.edc.sample.extension.proxy;
 
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.PATCH;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.CompletionCallback;
 import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.Suspended;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.Response;
-import org.eclipse.edc.connector.dataplane.spi.iam.DataPlaneAuthorizationService;
+import jakarta.ws.rs.core.StreamingOutput;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static jakarta.ws.rs.core.HttpHeaders.AUTHORIZATION;
+import static jakarta.ws.rs.core.HttpHeaders.CONTENT_LENGTH;
 import static jakarta.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static jakarta.ws.rs.core.HttpHeaders.IF_MODIFIED_SINCE;
+import static jakarta.ws.rs.core.HttpHeaders.IF_NONE_MATCH;
+import static jakarta.ws.rs.core.HttpHeaders.RETRY_AFTER;
 import static jakarta.ws.rs.core.MediaType.APPLICATION_OCTET_STREAM;
 import static jakarta.ws.rs.core.MediaType.WILDCARD;
+import static jakarta.ws.rs.core.Response.Status.BAD_GATEWAY;
+import static jakarta.ws.rs.core.Response.Status.BAD_REQUEST;
 import static jakarta.ws.rs.core.Response.Status.FORBIDDEN;
+import static jakarta.ws.rs.core.Response.Status.GATEWAY_TIMEOUT;
+import static jakarta.ws.rs.core.Response.Status.METHOD_NOT_ALLOWED;
+import static jakarta.ws.rs.core.Response.Status.NOT_MODIFIED;
+import static jakarta.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE;
+import static jakarta.ws.rs.core.Response.Status.TOO_MANY_REQUESTS;
 import static jakarta.ws.rs.core.Response.Status.UNAUTHORIZED;
-import static java.util.Collections.emptyMap;
+import static org.eclipse.edc.sample.extension.proxy.ProxyHeaders.FORWARDED_REQUEST_HEADERS;
+import static org.eclipse.edc.sample.extension.proxy.ProxyHeaders.FORWARDED_RESPONSE_HEADERS;
 import static org.eclipse.edc.spi.constants.CoreConstants.EDC_NAMESPACE;
 
 @Path("{any:.*}")
@@ -43,45 +73,322 @@ import static org.eclipse.edc.spi.constants.CoreConstants.EDC_NAMESPACE;
 @Produces(WILDCARD)
 public class ProxyController {
 
-    private final DataPlaneAuthorizationService authorizationService;
+    private static final String FILE_SCHEME = "file:";
+    private static final String ASSET_ID_PROPERTY = ProxyController.class.getName() + ".assetId";
+    private static final long NO_CONTENT_LENGTH = -1;
+    private static final long INVALID_CONTENT_LENGTH = -2;
 
-    public ProxyController(DataPlaneAuthorizationService authorizationService) {
-        this.authorizationService = authorizationService;
-    }
+    private final LocalFileBackend localFileBackend = new LocalFileBackend();
+    private AuthorizationCache authorizationCache;
+    private BackendClient backendClient;
+    private ResponseCache responseCache;
+    private ProxyMetrics metrics;
+    private ProxyRateLimiter rateLimiter;
+    private ResponseCompression compression;
+    private Duration readTimeout;
+    private Duration responseTimeout;
+    private int streamBufferSize;
+    private Executor streamingExecutor;
 
-    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private ProxyController() {
+    }
 
     @GET
-    public Response proxyGet(@Context ContainerRequestContext requestContext) {
+    public void proxyGet(@Context ContainerRequestContext requestContext, @Suspended AsyncResponse response) {
+        proxy(requestContext, response);
+    }
+
+    @POST
+    public void proxyPost(@Context ContainerRequestContext requestContext, @Suspended AsyncResponse response) {
+        proxy(requestContext, response);
+    }
+
+    @PUT
+    public void proxyPut(@Context ContainerRequestContext requestContext, @Suspended AsyncResponse response) {
+        proxy(requestContext, response);
+    }
+
+    @PATCH
+    public void proxyPatch(@Context ContainerRequestContext requestContext, @Suspended AsyncResponse response) {
+        proxy(requestContext, response);
+    }
+
+    @DELETE
+    public void proxyDelete(@Context ContainerRequestContext requestContext, @Suspended AsyncResponse response) {
+        proxy(requestContext, response);
+    }
+
+    private void proxy(ContainerRequestContext requestContext, AsyncResponse response) {
         var token = requestContext.getHeaderString(AUTHORIZATION);
         if (token == null) {
-            return Response.status(UNAUTHORIZED).build();
+            resume(requestContext, response, Response.status(UNAUTHORIZED).build());
+            return;
         }
 
-        var authorization = authorizationService.authorize(token, emptyMap());
+        var authorizeStart = System.nanoTime();
+        var authorization = authorizationCache.authorize(token);
+        metrics.phase(ProxyMetrics.Phase.AUTHORIZE, System.nanoTime() - authorizeStart);
         if (authorization.failed()) {
-            return Response.status(FORBIDDEN).build();
+            resume(requestContext, response, Response.status(FORBIDDEN).build());
+            return;
         }
 
-        var sourceDataAddress = authorization.getContent();
+        var sourceDataAddress = authorization.getContent().dataAddress();
+        requestContext.setProperty(ASSET_ID_PROPERTY, authorization.getContent().assetId());
 
+        var admission = rateLimiter.admit(authorization.getContent());
+        if (!admission.admitted()) {
+            resume(requestContext, response, Response.status(TOO_MANY_REQUESTS).header(RETRY_AFTER, admission.retryAfter()).build());
+            return;
+        }
+        response.register((CompletionCallback) throwable -> admission.release());
+
+        var baseUrl = sourceDataAddress.getStringProperty(EDC_NAMESPACE + "baseUrl");
+        var method = requestContext.getMethod();
+        if (baseUrl.startsWith(FILE_SCHEME)) {
+            if (!HttpMethod.GET.equals(method)) {
+                resume(requestContext, response, Response.status(METHOD_NOT_ALLOWED).build());
+                return;
+            }
+            resume(requestContext, response, localFileBackend.get(baseUrl, requestContext.getUriInfo().getPath(), requestContext));
+            return;
+        }
+
+        var contentLength = contentLength(requestContext);
+        if (contentLength == INVALID_CONTENT_LENGTH) {
+            resume(requestContext, response, Response.status(BAD_REQUEST).build());
+            return;
+        }
+
+        var targetUrl = baseUrl + "/" + requestContext.getUriInfo().getPath();
+        var requestBuilder = HttpRequest.newBuilder()
+                .uri(URI.create(targetUrl))
+                .timeout(readTimeout)
+                .method(method, bodyPublisher(requestContext, contentLength));
+        if (requestContext.hasEntity() && requestContext.getHeaderString(CONTENT_TYPE) != null) {
+            requestBuilder.header(CONTENT_TYPE, requestContext.getHeaderString(CONTENT_TYPE));
+        }
+        FORWARDED_REQUEST_HEADERS.forEach(name -> {
+            var value = requestContext.getHeaderString(name);
+            if (value != null) {
+                requestBuilder.header(name, value);
+            }
+        });
+
+        // only plain reads are cached, requests asking for a part or a conditional answer are left to the backend
+        var key = ResponseCache.key(targetUrl, sourceDataAddress);
+        if (!HttpMethod.GET.equals(method)) {
+            responseCache.invalidate(key);
+        }
+        var cacheKey = HttpMethod.GET.equals(method) && FORWARDED_REQUEST_HEADERS.stream().noneMatch(name -> requestContext.getHeaderString(name) != null)
+                ? key : null;
+        var cached = cacheKey != null ? responseCache.get(cacheKey) : null;
+        if (cached != null) {
+            if (responseCache.isFresh(cached)) {
+                resume(requestContext, response, cached.toResponse());
+                return;
+            }
+            if (cached.etag() != null) {
+                requestBuilder.header(IF_NONE_MATCH, cached.etag());
+            }
+            if (cached.lastModified() != null) {
+                requestBuilder.header(IF_MODIFIED_SINCE, cached.lastModified());
+            }
+        }
+        var request = requestBuilder.build();
+
+        // bounds the wait for the backend answer, including the time spent queued for a connection and the retries. The
+        // timeout is set before sending, since it cannot be set any more once the backend answer resumed the response
+        var pending = new AtomicReference<CompletableFuture<BackendClient.Exchange>>();
+        response.setTimeoutHandler(timedOut -> {
+            var exchange = pending.get();
+            if (exchange != null) {
+                // a request still queued for a connection is not sent any more, a late answer is discarded
+                exchange.cancel(false);
+            }
+            resume(requestContext, timedOut, Response.status(GATEWAY_TIMEOUT)
+                    .entity("{\"error\": \"Backend service did not respond in time\"}")
+                    .build());
+        });
+        response.setTimeout(responseTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        pending.set(backendClient.send(request, HttpMethod.GET.equals(method)));
+        pending.get()
+                .thenApply(exchange -> {
+                    var r = exchange.response();
+                    if (cached != null && r.statusCode() == NOT_MODIFIED.getStatusCode()) {
+                        exchange.discard();
+                        return responseCache.refresh(cacheKey, cached, r.headers()).toResponse();
+                    }
+                    var body = cacheKey != null ? responseCache.record(cacheKey, r) : r.body();
+                    return toResponse(r, body, exchange.permit());
+                })
+                .exceptionally(this::backendFailure)
+                // resuming writes the payload to the consumer on the calling thread, which must not be a client thread
+                .thenAcceptAsync(r -> resume(requestContext, response, r), streamingExecutor);
+    }
+
+    /**
+     * Streams the consumer request body to the backend as it is read, keeping the declared length when there is one.
+     */
+    private HttpRequest.BodyPublisher bodyPublisher(ContainerRequestContext requestContext, long contentLength) {
+        if (!requestContext.hasEntity() || contentLength == 0) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        var body = metrics.upload(requestContext.getMethod(), requestContext.getEntityStream());
+        var publisher = new UploadBodyPublisher(body, streamBufferSize, streamingExecutor);
+        // chunked uploads have no declared length and are forwarded chunked as well
+        return contentLength > 0 ? HttpRequest.BodyPublishers.fromPublisher(publisher, contentLength) : HttpRequest.BodyPublishers.fromPublisher(publisher);
+    }
+
+    /**
+     * Returns the declared length of the request body, {@link #NO_CONTENT_LENGTH} for a chunked body and
+     * {@link #INVALID_CONTENT_LENGTH} when the header is malformed.
+     */
+    private long contentLength(ContainerRequestContext requestContext) {
+        var length = requestContext.getHeaderString(CONTENT_LENGTH);
+        if (length == null) {
+            return NO_CONTENT_LENGTH;
+        }
         try {
-            var targetUrl = sourceDataAddress.getStringProperty(EDC_NAMESPACE + "baseUrl") + "/" + requestContext.getUriInfo().getPath();
-            var request = HttpRequest.newBuilder()
-                    .uri(URI.create(targetUrl))
-                    .method(requestContext.getMethod(), HttpRequest.BodyPublishers.ofInputStream(requestContext::getEntityStream))
+            var value = Long.parseLong(length.trim());
+            return value >= 0 ? value : INVALID_CONTENT_LENGTH;
+        } catch (NumberFormatException e) {
+            return INVALID_CONTENT_LENGTH;
+        }
+    }
+
+    private Response toResponse(HttpResponse<InputStream> backendResponse, InputStream backendBody, BackendConnectionLimiter.Permit permit) {
+        var response = Response.status(backendResponse.statusCode())
+                .header(CONTENT_TYPE, backendResponse.headers().firstValue(CONTENT_TYPE).orElse(APPLICATION_OCTET_STREAM));
+        FORWARDED_RESPONSE_HEADERS.forEach(name -> backendResponse.headers().firstValue(name)
+                .ifPresent(value -> response.header(name, value)));
+
+        var body = ProxyStreamingOutput.ofInputStream(backendBody, streamBufferSize, permit::release);
+        if (backendResponse.statusCode() == NOT_MODIFIED.getStatusCode()) {
+            closeQuietly(body);
+            return response.build();
+        }
+        return response.entity(body).build();
+    }
+
+    private void resume(ContainerRequestContext requestContext, AsyncResponse asyncResponse, Response response) {
+        var encoded = compression.apply(requestContext, response);
+        if (encoded.getEntity() instanceof StreamingOutput body) {
+            encoded = Response.fromResponse(encoded)
+                    .entity(metrics.download((String) requestContext.getProperty(ASSET_ID_PROPERTY), body))
                     .build();
+        }
+        metrics.request(requestContext.getMethod(), encoded.getStatus());
+        if (!asyncResponse.resume(encoded) && encoded.getEntity() instanceof Closeable closeable) {
+            // the consumer is gone, make sure the backend connection is not leaked
+            closeQuietly(closeable);
+        }
+    }
+
+    private void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // nothing left to do
+        }
+    }
 
-            var response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
-            return Response.status(response.statusCode())
-                    .header(CONTENT_TYPE, response.headers().firstValue(CONTENT_TYPE).orElse(APPLICATION_OCTET_STREAM))
-                    .entity(response.body())
+    private Response backendFailure(Throwable throwable) {
+        var cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        if (cause instanceof BackendClient.BackendUnavailableException unavailable) {
+            return Response.status(SERVICE_UNAVAILABLE)
+                    .header(RETRY_AFTER, unavailable.retryAfter())
+                    .entity("{\"error\": \"Backend service is unavailable\"}")
                     .build();
-        } catch (IOException | InterruptedException e) {
-            return Response.status(Response.Status.BAD_GATEWAY)
-                    .entity("{\"error\": \"Failed to contact backend service\"}")
+        }
+        if (cause instanceof TimeoutException) {
+            return Response.status(SERVICE_UNAVAILABLE)
+                    .entity("{\"error\": \"No connection to the backend service became available in time\"}")
                     .build();
         }
+        if (cause instanceof HttpTimeoutException) {
+            return Response.status(GATEWAY_TIMEOUT)
+                    .entity("{\"error\": \"Backend service did not respond in time\"}")
+                    .build();
+        }
+        return Response.status(BAD_GATEWAY)
+                .entity("{\"error\": \"Failed to contact backend service\"}")
+                .build();
     }
 
+    public static class Builder {
+
+        private final ProxyController controller;
+
+        private Builder() {
+            controller = new ProxyController();
+        }
+
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        public Builder authorizationCache(AuthorizationCache authorizationCache) {
+            controller.authorizationCache = authorizationCache;
+            return this;
+        }
+
+        public Builder backendClient(BackendClient backendClient) {
+            controller.backendClient = backendClient;
+            return this;
+        }
+
+        public Builder responseCache(ResponseCache responseCache) {
+            controller.responseCache = responseCache;
+            return this;
+        }
+
+        public Builder metrics(ProxyMetrics metrics) {
+            controller.metrics = metrics;
+            return this;
+        }
+
+        public Builder rateLimiter(ProxyRateLimiter rateLimiter) {
+            controller.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        public Builder compression(ResponseCompression compression) {
+            controller.compression = compression;
+            return this;
+        }
+
+        public Builder readTimeout(Duration readTimeout) {
+            controller.readTimeout = readTimeout;
+            return this;
+        }
+
+        public Builder responseTimeout(Duration responseTimeout) {
+            controller.responseTimeout = responseTimeout;
+            return this;
+        }
+
+        public Builder streamBufferSize(int streamBufferSize) {
+            controller.streamBufferSize = streamBufferSize;
+            return this;
+        }
+
+        public Builder streamingExecutor(Executor streamingExecutor) {
+            controller.streamingExecutor = streamingExecutor;
+            return this;
+        }
+
+        public ProxyController build() {
+            Objects.requireNonNull(controller.authorizationCache, "authorizationCache");
+            Objects.requireNonNull(controller.backendClient, "backendClient");
+            Objects.requireNonNull(controller.responseCache, "responseCache");
+            Objects.requireNonNull(controller.metrics, "metrics");
+            Objects.requireNonNull(controller.rateLimiter, "rateLimiter");
+            Objects.requireNonNull(controller.compression, "compression");
+            Objects.requireNonNull(controller.readTimeout, "readTimeout");
+            Objects.requireNonNull(controller.responseTimeout, "responseTimeout");
+            Objects.requireNonNull(controller.streamingExecutor, "streamingExecutor");
+            return controller;
+        }
+    }
 }
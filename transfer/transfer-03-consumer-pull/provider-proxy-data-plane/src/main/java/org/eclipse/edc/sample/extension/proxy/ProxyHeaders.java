@@ -0,0 +1,49 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.proxy;
+
+import java.util.List;
+
+import static jakarta.ws.rs.core.HttpHeaders.CONTENT_ENCODING;
+import static jakarta.ws.rs.core.HttpHeaders.CONTENT_LENGTH;
+import static jakarta.ws.rs.core.HttpHeaders.ETAG;
+import static jakarta.ws.rs.core.HttpHeaders.IF_MODIFIED_SINCE;
+import static jakarta.ws.rs.core.HttpHeaders.IF_NONE_MATCH;
+import static jakarta.ws.rs.core.HttpHeaders.LAST_MODIFIED;
+
+/**
+ * Http headers handled by the proxy that are not defined in {@link jakarta.ws.rs.core.HttpHeaders}, and the headers
+ * that are passed through between the consumer and the backend.
+ */
+final class ProxyHeaders {
+
+    static final String RANGE = "Range";
+    static final String IF_RANGE = "If-Range";
+    static final String CONTENT_RANGE = "Content-Range";
+    static final String ACCEPT_RANGES = "Accept-Ranges";
+
+    /**
+     * Consumer request headers that are forwarded to the backend.
+     */
+    static final List<String> FORWARDED_REQUEST_HEADERS = List.of(RANGE, IF_RANGE, IF_NONE_MATCH, IF_MODIFIED_SINCE);
+
+    /**
+     * Backend response headers that are returned to the consumer.
+     */
+    static final List<String> FORWARDED_RESPONSE_HEADERS = List.of(CONTENT_LENGTH, CONTENT_ENCODING, CONTENT_RANGE, ACCEPT_RANGES, ETAG, LAST_MODIFIED);
+
+    private ProxyHeaders() {
+    }
+}
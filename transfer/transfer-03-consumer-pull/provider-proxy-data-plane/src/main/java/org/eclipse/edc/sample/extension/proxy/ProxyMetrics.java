@@ -0,0 +1,341 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.proxy;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * OpenTelemetry instruments of the proxy. When the runtime is started with the OpenTelemetry java agent (see the
+ * {@code advanced-01-open-telemetry} sample) they are exported with the other agent metrics, otherwise they are no-op.
+ * <p>
+ * Attributes are created once and reused, so recording a measurement on the request path does not allocate.
+ */
+class ProxyMetrics {
+
+    private static final AttributeKey<String> METHOD = AttributeKey.stringKey("http.request.method");
+    private static final AttributeKey<String> SERVER_ADDRESS = AttributeKey.stringKey("server.address");
+    private static final AttributeKey<Long> STATUS_CODE = AttributeKey.longKey("http.response.status_code");
+    private static final AttributeKey<String> ASSET_ID = AttributeKey.stringKey("edc.asset.id");
+    private static final AttributeKey<String> CACHE_RESULT = AttributeKey.stringKey("edc.proxy.cache.result");
+    private static final String UNKNOWN_ASSET = "unknown";
+    private static final int MAX_STATUS_CODE = 600;
+    private static final List<Double> LATENCY_BUCKETS = List.of(0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 0.75, 1.0, 2.5, 5.0, 7.5, 10.0, 30.0);
+
+    private final LongCounter uploadedBytes;
+    private final DoubleHistogram uploadDuration;
+    private final LongCounter compressionInput;
+    private final LongCounter compressionOutput;
+    private final DoubleHistogram compressionDuration;
+    private final DoubleHistogram backendDuration;
+    private final LongCounter backendRetries;
+    private final LongCounter backendHedges;
+    private final LongCounter requests;
+    private final DoubleHistogram phaseDuration;
+    private final LongCounter downloadedBytes;
+    private final Map<String, AtomicReferenceArray<Attributes>> requestAttributes = new ConcurrentHashMap<>();
+    private final Map<String, Attributes> assetAttributes = new ConcurrentHashMap<>();
+    private final Map<String, Attributes> methodAttributes = new ConcurrentHashMap<>();
+    private final Map<String, HostAttributes> hostAttributes = new ConcurrentHashMap<>();
+    private final Meter meter;
+
+    ProxyMetrics(Meter meter) {
+        this.meter = meter;
+        uploadedBytes = meter.counterBuilder("edc.proxy.upload.size")
+                .setDescription("Bytes uploaded by consumers through the proxy")
+                .setUnit("By")
+                .build();
+        uploadDuration = meter.histogramBuilder("edc.proxy.upload.duration")
+                .setDescription("Time spent streaming an upload to the backend")
+                .setUnit("s")
+                .build();
+        compressionInput = meter.counterBuilder("edc.proxy.compression.input.size")
+                .setDescription("Bytes fed to the response compression")
+                .setUnit("By")
+                .build();
+        compressionOutput = meter.counterBuilder("edc.proxy.compression.output.size")
+                .setDescription("Compressed bytes sent to consumers")
+                .setUnit("By")
+                .build();
+        compressionDuration = meter.histogramBuilder("edc.proxy.compression.duration")
+                .setDescription("Time spent compressing a single response, excluding the time spent writing it")
+                .setUnit("s")
+                .build();
+        backendDuration = meter.histogramBuilder("edc.proxy.backend.duration")
+                .setDescription("Time until the backend answered with the response headers")
+                .setUnit("s")
+                .setExplicitBucketBoundariesAdvice(LATENCY_BUCKETS)
+                .build();
+        backendRetries = meter.counterBuilder("edc.proxy.backend.retries")
+                .setDescription("Backend requests sent again after a failure")
+                .build();
+        backendHedges = meter.counterBuilder("edc.proxy.backend.hedges")
+                .setDescription("Backend requests duplicated because the backend was slower than its usual p95 latency")
+                .build();
+        requests = meter.counterBuilder("edc.proxy.requests")
+                .setDescription("Requests answered by the proxy")
+                .build();
+        phaseDuration = meter.histogramBuilder("edc.proxy.phase.duration")
+                .setDescription("Time spent in each phase of a proxied request")
+                .setUnit("s")
+                .setExplicitBucketBoundariesAdvice(LATENCY_BUCKETS)
+                .build();
+        downloadedBytes = meter.counterBuilder("edc.proxy.download.size")
+                .setDescription("Bytes sent to consumers, per asset")
+                .setUnit("By")
+                .build();
+    }
+
+    /**
+     * Counts the bytes read from an upload body, and records the upload once the body is exhausted or closed.
+     */
+    InputStream upload(String method, InputStream body) {
+        return new FilterInputStream(body) {
+            private final long start = System.nanoTime();
+            private long count;
+            private boolean recorded;
+
+            @Override
+            public int read() throws IOException {
+                var read = super.read();
+                if (read == -1) {
+                    record();
+                } else {
+                    count++;
+                }
+                return read;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                var read = super.read(b, off, len);
+                if (read == -1) {
+                    record();
+                } else {
+                    count += read;
+                }
+                return read;
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    record();
+                }
+            }
+
+            private void record() {
+                if (!recorded) {
+                    recorded = true;
+                    var attributes = methodAttributes.computeIfAbsent(method, m -> Attributes.of(METHOD, m));
+                    uploadedBytes.add(count, attributes);
+                    uploadDuration.record((System.nanoTime() - start) / 1e9, attributes);
+                }
+            }
+        };
+    }
+
+    void compression(long inputSize, long outputSize, long nanos) {
+        compressionInput.add(inputSize);
+        compressionOutput.add(outputSize);
+        compressionDuration.record(nanos / 1e9);
+    }
+
+    /**
+     * Records a backend answer, a status code of 0 meaning that no answer was received.
+     */
+    void backendResponse(String host, long nanos, int statusCode) {
+        backendDuration.record(nanos / 1e9, hostAttributes(host).withStatusCode(statusCode));
+    }
+
+    void backendRetry(String host) {
+        backendRetries.add(1, hostAttributes(host).host());
+    }
+
+    void backendHedge(String host) {
+        backendHedges.add(1, hostAttributes(host).host());
+    }
+
+    /**
+     * Exports the circuit state of every backend host: 0 closed, 1 open, 2 half-open.
+     */
+    void observe(BackendCircuitBreaker circuitBreaker) {
+        meter.gaugeBuilder("edc.proxy.backend.circuit.state")
+                .setDescription("Circuit breaker state of the backend host: 0 closed, 1 open, 2 half-open")
+                .ofLongs()
+                .buildWithCallback(measurement -> circuitBreaker.states()
+                        .forEach((host, state) -> measurement.record(state.ordinal(), Attributes.of(SERVER_ADDRESS, host))));
+    }
+
+    void observe(AuthorizationCache authorizationCache) {
+        var hit = Attributes.of(CACHE_RESULT, "hit");
+        var miss = Attributes.of(CACHE_RESULT, "miss");
+        meter.counterBuilder("edc.proxy.auth.cache.requests")
+                .setDescription("Token authorizations answered by the authorization cache (hit) or verified again (miss)")
+                .buildWithCallback(measurement -> {
+                    measurement.record(authorizationCache.hits(), hit);
+                    measurement.record(authorizationCache.misses(), miss);
+                });
+    }
+
+    void request(String method, int statusCode) {
+        requests.add(1, requestAttributes(method, statusCode));
+    }
+
+    void phase(Phase phase, long nanos) {
+        phaseDuration.record(nanos / 1e9, phase.attributes);
+    }
+
+    /**
+     * Wraps a payload written to the consumer, recording the stream phase and the bytes sent for the asset.
+     */
+    StreamingOutput download(String assetId, StreamingOutput body) {
+        var attributes = assetAttributes.computeIfAbsent(assetId != null ? assetId : UNKNOWN_ASSET, id -> Attributes.of(ASSET_ID, id));
+        return new MeteredStreamingOutput(body, attributes);
+    }
+
+    private HostAttributes hostAttributes(String host) {
+        return hostAttributes.computeIfAbsent(host, HostAttributes::new);
+    }
+
+    private Attributes requestAttributes(String method, int statusCode) {
+        if (statusCode < 0 || statusCode >= MAX_STATUS_CODE) {
+            return Attributes.of(METHOD, method, STATUS_CODE, (long) statusCode);
+        }
+        var byStatusCode = requestAttributes.computeIfAbsent(method, k -> new AtomicReferenceArray<>(MAX_STATUS_CODE));
+        var attributes = byStatusCode.get(statusCode);
+        if (attributes == null) {
+            attributes = Attributes.of(METHOD, method, STATUS_CODE, (long) statusCode);
+            byStatusCode.set(statusCode, attributes);
+        }
+        return attributes;
+    }
+
+    /**
+     * Phases of a proxied request. The backend does not expose the TCP connection setup, so {@code connect} is the
+     * time spent waiting for a backend connection slot, and connection setup is part of {@code first_byte}.
+     */
+    enum Phase {
+        AUTHORIZE("authorize"),
+        CONNECT("connect"),
+        FIRST_BYTE("first_byte"),
+        STREAM("stream");
+
+        private final Attributes attributes;
+
+        Phase(String name) {
+            attributes = Attributes.of(AttributeKey.stringKey("edc.proxy.phase"), name);
+        }
+    }
+
+    /**
+     * The attributes of a backend host, alone and together with every status code it answered with.
+     */
+    private static final class HostAttributes {
+
+        private final String host;
+        private final Attributes attributes;
+        private final AtomicReferenceArray<Attributes> byStatusCode = new AtomicReferenceArray<>(MAX_STATUS_CODE);
+
+        HostAttributes(String host) {
+            this.host = host;
+            this.attributes = Attributes.of(SERVER_ADDRESS, host);
+        }
+
+        Attributes host() {
+            return attributes;
+        }
+
+        Attributes withStatusCode(int statusCode) {
+            if (statusCode < 0 || statusCode >= MAX_STATUS_CODE) {
+                return Attributes.of(SERVER_ADDRESS, host, STATUS_CODE, (long) statusCode);
+            }
+            var withStatusCode = byStatusCode.get(statusCode);
+            if (withStatusCode == null) {
+                withStatusCode = Attributes.of(SERVER_ADDRESS, host, STATUS_CODE, (long) statusCode);
+                byStatusCode.set(statusCode, withStatusCode);
+            }
+            return withStatusCode;
+        }
+    }
+
+    private class MeteredStreamingOutput implements StreamingOutput, Closeable {
+
+        private final StreamingOutput delegate;
+        private final Attributes attributes;
+
+        MeteredStreamingOutput(StreamingOutput delegate, Attributes attributes) {
+            this.delegate = delegate;
+            this.attributes = attributes;
+        }
+
+        @Override
+        public void write(OutputStream output) throws IOException {
+            var start = System.nanoTime();
+            var counting = new CountingOutputStream(output);
+            try {
+                delegate.write(counting);
+            } finally {
+                phase(Phase.STREAM, System.nanoTime() - start);
+                downloadedBytes.add(counting.count, attributes);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (delegate instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.proxy;
+
+import org.eclipse.edc.spi.types.domain.DataAddress;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.eclipse.edc.spi.constants.CoreConstants.EDC_NAMESPACE;
+
+/**
+ * Admission control for the proxy: limits the request rate and the number of requests in flight for every asset served
+ * by the proxy. Tokens that do not carry the asset id are limited per contract agreement, or per backend url.
+ * <p>
+ * The defaults can be overridden per asset with the {@code proxyRateLimit}, {@code proxyRateBurst} and
+ * {@code proxyMaxInFlight} properties of its data address. Limits are kept in atomics, one set per asset, so admitting a
+ * request never takes a lock. Limits of idle assets are dropped once there are many of them: an idle bucket is full, so
+ * dropping it does not change the outcome of the next admission.
+ */
+class ProxyRateLimiter {
+
+    static final String RATE_LIMIT = EDC_NAMESPACE + "proxyRateLimit";
+    static final String RATE_BURST = EDC_NAMESPACE + "proxyRateBurst";
+    static final String MAX_IN_FLIGHT = EDC_NAMESPACE + "proxyMaxInFlight";
+
+    private static final int MAX_IDLE_LIMITS = 10_000;
+
+    private final double defaultRate;
+    private final int defaultBurst;
+    private final int defaultMaxInFlight;
+    private final LongSupplier nanoClock;
+    private final Map<String, Limits> limits = new ConcurrentHashMap<>();
+
+    ProxyRateLimiter(double defaultRate, int defaultBurst, int defaultMaxInFlight, LongSupplier nanoClock) {
+        this.defaultRate = defaultRate;
+        this.defaultBurst = defaultBurst;
+        this.defaultMaxInFlight = defaultMaxInFlight;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Tries to admit a request for an authorized token. An admitted request must be released once its response has been
+     * written.
+     */
+    Admission admit(AuthorizationCache.Authorization authorization) {
+        var key = key(authorization);
+        var assetLimits = limits.get(key);
+        if (assetLimits == null) {
+            if (limits.size() >= MAX_IDLE_LIMITS) {
+                removeIdleLimits();
+            }
+            assetLimits = limits.computeIfAbsent(key, k -> createLimits(authorization.dataAddress()));
+        }
+        return assetLimits.admit();
+    }
+
+    private String key(AuthorizationCache.Authorization authorization) {
+        if (authorization.assetId() != null) {
+            return authorization.assetId();
+        }
+        if (authorization.agreementId() != null) {
+            return "agreement:" + authorization.agreementId();
+        }
+        return "url:" + authorization.dataAddress().getStringProperty(EDC_NAMESPACE + "baseUrl");
+    }
+
+    private void removeIdleLimits() {
+        var now = nanoClock.getAsLong();
+        limits.forEach((key, value) -> {
+            if (value.isIdle(now)) {
+                limits.remove(key, value);
+            }
+        });
+    }
+
+    private Limits createLimits(DataAddress dataAddress) {
+        var rate = doubleProperty(dataAddress, RATE_LIMIT, defaultRate);
+        var burst = (int) doubleProperty(dataAddress, RATE_BURST, defaultBurst);
+        var maxInFlight = (int) doubleProperty(dataAddress, MAX_IN_FLIGHT, defaultMaxInFlight);
+        return new Limits(rate, Math.max(burst, 1), maxInFlight);
+    }
+
+    private double doubleProperty(DataAddress dataAddress, String key, double defaultValue) {
+        var value = dataAddress.getStringProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * The outcome of an admission. Rejected admissions carry the number of seconds after which the consumer may retry.
+     */
+    static final class Admission {
+
+        private static final Admission UNLIMITED = new Admission(true, 0, null);
+
+        private final boolean admitted;
+        private final long retryAfter;
+        private final AtomicInteger inFlight;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Admission(boolean admitted, long retryAfter, AtomicInteger inFlight) {
+            this.admitted = admitted;
+            this.retryAfter = retryAfter;
+            this.inFlight = inFlight;
+        }
+
+        boolean admitted() {
+            return admitted;
+        }
+
+        long retryAfter() {
+            return retryAfter;
+        }
+
+        void release() {
+            if (admitted && inFlight != null && released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Token bucket implemented as a generic cell rate algorithm: the bucket is a single "theoretical arrival time",
+     * updated with compare-and-set.
+     */
+    private final class Limits {
+
+        private final long interval;
+        private final long tolerance;
+        private final int maxInFlight;
+        private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        Limits(double rate, int burst, int maxInFlight) {
+            this.interval = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+            this.tolerance = interval * (burst - 1);
+            this.maxInFlight = maxInFlight;
+        }
+
+        Admission admit() {
+            if (interval > 0) {
+                var now = nanoClock.getAsLong();
+                while (true) {
+                    var current = theoreticalArrival.get();
+                    var arrival = current == Long.MIN_VALUE ? now : Math.max(current, now);
+                    if (arrival - tolerance > now) {
+                        var wait = arrival - tolerance - now;
+                        return new Admission(false, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1)), null);
+                    }
+                    if (theoreticalArrival.compareAndSet(current, arrival + interval)) {
+                        break;
+                    }
+                }
+            }
+            if (maxInFlight <= 0) {
+                return Admission.UNLIMITED;
+            }
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                return new Admission(false, 1, null);
+            }
+            return new Admission(true, 0, inFlight);
+        }
+
+        /**
+         * Whether no request is in flight and the bucket is full again, i.e. the limits are in their initial state.
+         */
+        boolean isIdle(long now) {
+            var arrival = theoreticalArrival.get();
+            return inFlight.get() == 0 && (arrival == Long.MIN_VALUE || arrival <= now);
+        }
+    }
+}
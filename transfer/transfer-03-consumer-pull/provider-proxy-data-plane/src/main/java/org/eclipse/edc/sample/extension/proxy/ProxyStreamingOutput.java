@@ -0,0 +1,115 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.proxy;
+
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes a proxied payload to the consumer without buffering it.
+ * <p>
+ * Upstream bodies are copied with a single, large buffer: the upstream stream only demands more data from the backend
+ * once the previous chunk has been written to the consumer, so a slow consumer slows down the backend transfer instead
+ * of making the proxy buffer it. Local files are written with {@link FileChannel#transferTo}, which saves the read
+ * loop but still copies the data through a heap buffer, since the consumer output is a plain {@link OutputStream}. A
+ * file truncated during the transfer fails it with an {@link EOFException}, so the consumer sees an incomplete body.
+ */
+abstract class ProxyStreamingOutput implements StreamingOutput, Closeable {
+
+    private final Runnable onClose;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private ProxyStreamingOutput(Runnable onClose) {
+        this.onClose = onClose;
+    }
+
+    static ProxyStreamingOutput ofInputStream(InputStream inputStream, int bufferSize, Runnable onClose) {
+        return new ProxyStreamingOutput(onClose) {
+            @Override
+            protected void transfer(OutputStream output) throws IOException {
+                var buffer = new byte[bufferSize];
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    output.write(buffer, 0, read);
+                }
+            }
+
+            @Override
+            protected void release() throws IOException {
+                inputStream.close();
+            }
+        };
+    }
+
+    static ProxyStreamingOutput ofFile(Path file, long offset, long length, Runnable onClose) {
+        return new ProxyStreamingOutput(onClose) {
+            @Override
+            protected void transfer(OutputStream output) throws IOException {
+                try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    var target = Channels.newChannel(output);
+                    var position = offset;
+                    var end = Math.min(offset + length, channel.size());
+                    while (position < end) {
+                        var transferred = channel.transferTo(position, end - position, target);
+                        if (transferred == 0 && position >= channel.size()) {
+                            // the file was truncated during the transfer, the missing bytes will never come
+                            throw new EOFException("%s was truncated at %d bytes during the transfer".formatted(file, position));
+                        }
+                        position += transferred;
+                    }
+                }
+            }
+
+            @Override
+            protected void release() {
+            }
+        };
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        try {
+            transfer(output);
+            output.flush();
+        } finally {
+            close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed.compareAndSet(false, true)) {
+            try {
+                release();
+            } finally {
+                onClose.run();
+            }
+        }
+    }
+
+    protected abstract void transfer(OutputStream output) throws IOException;
+
+    protected abstract void release() throws IOException;
+}
@@ -0,0 +1,431 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.proxy;
+
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.eclipse.edc.spi.monitor.Monitor;
+import org.eclipse.edc.spi.types.domain.DataAddress;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static jakarta.ws.rs.core.HttpHeaders.CACHE_CONTROL;
+import static jakarta.ws.rs.core.HttpHeaders.CONTENT_ENCODING;
+import static jakarta.ws.rs.core.HttpHeaders.CONTENT_LENGTH;
+import static jakarta.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static jakarta.ws.rs.core.HttpHeaders.ETAG;
+import static jakarta.ws.rs.core.HttpHeaders.LAST_MODIFIED;
+import static jakarta.ws.rs.core.MediaType.APPLICATION_OCTET_STREAM;
+
+/**
+ * Keeps the payload of backend responses so that hot assets are served locally instead of hitting the backend on
+ * every pull. Small payloads are kept on the heap, bigger ones are written to a cache directory and memory-mapped.
+ * Both tiers are bounded by size and evict the least recently used entries first.
+ * <p>
+ * Only responses that carry a {@code max-age} or a validator ({@code ETag}, {@code Last-Modified}) are stored, and
+ * {@code no-store} and {@code private} responses are never stored. Stale entries with a validator are revalidated
+ * with a conditional request before being served again.
+ */
+class ResponseCache {
+
+    /**
+     * Memory-mapped entries are limited to the size of a single mapping.
+     */
+    static final long MAX_ENTRY_SIZE = Integer.MAX_VALUE;
+
+    private static final String ENTRY_FILE_PREFIX = "proxy-";
+    private static final String ENTRY_FILE_SUFFIX = ".cache";
+
+    private final boolean enabled;
+    private final Clock clock;
+    private final Monitor monitor;
+    private final Path directory;
+    private final long memoryEntryMaxSize;
+    private final long entryMaxSize;
+    private final Tier memoryTier;
+    private final Tier diskTier;
+
+    ResponseCache(boolean enabled, Clock clock, Monitor monitor, Path directory, long memorySize, long diskSize, long memoryEntryMaxSize, long entryMaxSize) {
+        this.enabled = enabled;
+        this.clock = clock;
+        this.monitor = monitor;
+        this.directory = directory;
+        this.memoryEntryMaxSize = memoryEntryMaxSize;
+        this.entryMaxSize = entryMaxSize;
+        this.memoryTier = new Tier(memorySize);
+        this.diskTier = new Tier(diskSize);
+        if (enabled) {
+            deleteStaleFiles();
+        }
+    }
+
+    static Key key(String targetUrl, DataAddress dataAddress) {
+        return new Key(targetUrl, new HashMap<>(dataAddress.getProperties()));
+    }
+
+    Entry get(Key key) {
+        if (!enabled) {
+            return null;
+        }
+        var entry = memoryTier.get(key);
+        return entry != null ? entry : diskTier.get(key);
+    }
+
+    void invalidate(Key key) {
+        memoryTier.remove(key);
+        diskTier.remove(key);
+    }
+
+    boolean isFresh(Entry entry) {
+        return clock.millis() < entry.expiresAt();
+    }
+
+    /**
+     * Extends the freshness of an entry after the backend answered a revalidation with {@code 304 Not Modified}.
+     */
+    Entry refresh(Key key, Entry entry, HttpHeaders headers) {
+        var refreshed = entry.withExpiresAt(expiresAt(headers));
+        (refreshed.body() instanceof MemoryBody ? memoryTier : diskTier).put(key, refreshed);
+        return refreshed;
+    }
+
+    /**
+     * Wraps the backend response body so that the payload gets stored while it is streamed to the consumer. The entry
+     * is only committed if the body is read completely.
+     */
+    InputStream record(Key key, HttpResponse<InputStream> response) {
+        var cacheControl = CacheControl.parse(response.headers());
+        var etag = response.headers().firstValue(ETAG).orElse(null);
+        var lastModified = response.headers().firstValue(LAST_MODIFIED).orElse(null);
+        var storable = response.statusCode() == 200 && !cacheControl.noStore() && !cacheControl.isPrivate() &&
+                (cacheControl.maxAge() > 0 || etag != null || lastModified != null);
+        var contentLength = response.headers().firstValueAsLong(CONTENT_LENGTH).orElse(-1);
+        if (!enabled || !storable || contentLength > entryMaxSize) {
+            return response.body();
+        }
+
+        var contentType = response.headers().firstValue(CONTENT_TYPE).orElse(APPLICATION_OCTET_STREAM);
+        var contentEncoding = response.headers().firstValue(CONTENT_ENCODING).orElse(null);
+        var expiresAt = expiresAt(response.headers());
+        return new RecordingInputStream(response.body(), body -> {
+            var entry = new Entry(body, contentType, contentEncoding, etag, lastModified, expiresAt);
+            (body instanceof MemoryBody ? memoryTier : diskTier).put(key, entry);
+        });
+    }
+
+    /**
+     * Deletes the entry files left by a previous run, whose entries are not known to this cache.
+     */
+    private void deleteStaleFiles() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (var files = Files.newDirectoryStream(directory, ENTRY_FILE_PREFIX + "*" + ENTRY_FILE_SUFFIX)) {
+            for (var file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            monitor.warning("Failed to delete the stale entries of the proxy cache in " + directory, e);
+        }
+    }
+
+    private long expiresAt(HttpHeaders headers) {
+        var cacheControl = CacheControl.parse(headers);
+        return cacheControl.noCache() ? 0 : clock.millis() + cacheControl.maxAge() * 1000;
+    }
+
+    record Key(String targetUrl, Map<String, Object> dataAddress) {
+    }
+
+    record Entry(Body body, String contentType, String contentEncoding, String etag, String lastModified, long expiresAt) {
+
+        Entry withExpiresAt(long expiresAt) {
+            return new Entry(body, contentType, contentEncoding, etag, lastModified, expiresAt);
+        }
+
+        Response toResponse() {
+            var response = Response.ok(body)
+                    .header(CONTENT_TYPE, contentType)
+                    .header(CONTENT_LENGTH, body.size());
+            if (contentEncoding != null) {
+                response.header(CONTENT_ENCODING, contentEncoding);
+            }
+            if (etag != null) {
+                response.header(ETAG, etag);
+            }
+            if (lastModified != null) {
+                response.header(LAST_MODIFIED, lastModified);
+            }
+            return response.build();
+        }
+    }
+
+    interface Body extends StreamingOutput {
+
+        long size();
+
+        default void discard() {
+        }
+    }
+
+    private record MemoryBody(byte[] bytes) implements Body {
+
+        @Override
+        public long size() {
+            return bytes.length;
+        }
+
+        @Override
+        public void write(OutputStream output) throws IOException {
+            output.write(bytes);
+        }
+    }
+
+    private record MappedBody(Path file, ByteBuffer buffer) implements Body {
+
+        @Override
+        public long size() {
+            return buffer.capacity();
+        }
+
+        @Override
+        public void write(OutputStream output) throws IOException {
+            var source = buffer.duplicate();
+            var target = Channels.newChannel(output);
+            while (source.hasRemaining()) {
+                target.write(source);
+            }
+        }
+
+        @Override
+        public void discard() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // the mapping stays valid until it is garbage collected, the file is deleted at the next start
+            }
+        }
+    }
+
+    private record CacheControl(boolean noStore, boolean noCache, boolean isPrivate, long maxAge) {
+
+        static CacheControl parse(HttpHeaders headers) {
+            var noStore = false;
+            var noCache = false;
+            var isPrivate = false;
+            var maxAge = 0L;
+            for (var directive : String.join(",", headers.allValues(CACHE_CONTROL)).split(",")) {
+                var value = directive.trim().toLowerCase(Locale.ROOT);
+                if (value.equals("no-store")) {
+                    noStore = true;
+                } else if (value.equals("no-cache")) {
+                    noCache = true;
+                } else if (value.equals("private")) {
+                    isPrivate = true;
+                } else if (value.startsWith("max-age=") || value.startsWith("s-maxage=")) {
+                    try {
+                        maxAge = Long.parseLong(value.substring(value.indexOf('=') + 1));
+                    } catch (NumberFormatException e) {
+                        maxAge = 0;
+                    }
+                }
+            }
+            return new CacheControl(noStore, noCache, isPrivate, maxAge);
+        }
+    }
+
+    /**
+     * A size-bounded LRU map of cache entries.
+     */
+    private static class Tier {
+
+        private final long maxSize;
+        private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long size;
+
+        Tier(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        synchronized Entry get(Key key) {
+            return entries.get(key);
+        }
+
+        synchronized void remove(Key key) {
+            var removed = entries.remove(key);
+            if (removed != null) {
+                size -= removed.body().size();
+                removed.body().discard();
+            }
+        }
+
+        synchronized void put(Key key, Entry entry) {
+            if (entry.body().size() > maxSize) {
+                entry.body().discard();
+                return;
+            }
+            var previous = entries.put(key, entry);
+            if (previous != null) {
+                size -= previous.body().size();
+                if (previous.body() != entry.body()) {
+                    previous.body().discard();
+                }
+            }
+            size += entry.body().size();
+            var iterator = entries.values().iterator();
+            while (size > maxSize && iterator.hasNext()) {
+                var eldest = iterator.next();
+                iterator.remove();
+                size -= eldest.body().size();
+                eldest.body().discard();
+            }
+        }
+    }
+
+    /**
+     * Copies the bytes read by the consumer into the heap and, once they exceed the memory entry size, into a file.
+     */
+    private class RecordingInputStream extends FilterInputStream {
+
+        private final Consumer<Body> onComplete;
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private Path file;
+        private OutputStream fileOutput;
+        private long recorded;
+        private boolean abandoned;
+
+        RecordingInputStream(InputStream in, Consumer<Body> onComplete) {
+            super(in);
+            this.onComplete = onComplete;
+        }
+
+        @Override
+        public int read() throws IOException {
+            var single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            var read = super.read(b, off, len);
+            if (read == -1) {
+                complete();
+            } else {
+                record(b, off, read);
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                abandon();
+            }
+        }
+
+        private void record(byte[] bytes, int offset, int length) {
+            if (abandoned) {
+                return;
+            }
+            recorded += length;
+            try {
+                if (recorded > entryMaxSize) {
+                    abandon();
+                } else if (fileOutput != null) {
+                    fileOutput.write(bytes, offset, length);
+                } else if (recorded > memoryEntryMaxSize) {
+                    Files.createDirectories(directory);
+                    file = Files.createTempFile(directory, ENTRY_FILE_PREFIX, ENTRY_FILE_SUFFIX);
+                    fileOutput = Files.newOutputStream(file);
+                    memory.writeTo(fileOutput);
+                    memory = null;
+                    fileOutput.write(bytes, offset, length);
+                } else {
+                    memory.write(bytes, offset, length);
+                }
+            } catch (IOException e) {
+                monitor.warning("Failed to write proxy cache entry, the response will not be cached", e);
+                abandon();
+            }
+        }
+
+        private void complete() {
+            if (abandoned) {
+                return;
+            }
+            abandoned = true;
+            if (fileOutput == null) {
+                onComplete.accept(new MemoryBody(memory.toByteArray()));
+                return;
+            }
+            try {
+                fileOutput.close();
+            } catch (IOException e) {
+                monitor.warning("Failed to write proxy cache entry, the response will not be cached", e);
+                deleteFile();
+                return;
+            }
+            try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                onComplete.accept(new MappedBody(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())));
+            } catch (IOException | IllegalArgumentException e) {
+                monitor.warning("Failed to map proxy cache entry, the response will not be cached", e);
+                deleteFile();
+            }
+        }
+
+        private void abandon() {
+            if (abandoned) {
+                return;
+            }
+            abandoned = true;
+            memory = null;
+            deleteFile();
+        }
+
+        private void deleteFile() {
+            if (file == null) {
+                return;
+            }
+            try {
+                if (fileOutput != null) {
+                    fileOutput.close();
+                }
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // best effort, the file lives in the cache directory anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.proxy;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import static jakarta.ws.rs.core.HttpHeaders.ACCEPT_ENCODING;
+import static jakarta.ws.rs.core.HttpHeaders.CONTENT_ENCODING;
+import static jakarta.ws.rs.core.HttpHeaders.CONTENT_LENGTH;
+import static jakarta.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static jakarta.ws.rs.core.HttpHeaders.ETAG;
+import static jakarta.ws.rs.core.HttpHeaders.VARY;
+import static org.eclipse.edc.sample.extension.proxy.ProxyHeaders.ACCEPT_RANGES;
+import static org.eclipse.edc.sample.extension.proxy.ProxyHeaders.CONTENT_RANGE;
+
+/**
+ * Compresses proxied payloads on the fly with gzip when the consumer accepts it. Bodies that are already encoded,
+ * partial responses, payloads smaller than the configured threshold and content types that do not compress well are
+ * left untouched. Compressed responses do not advertise byte ranges and get their own entity tag: resuming an
+ * interrupted compressed download with {@code If-Range} returns the whole representation again, never a range of the
+ * uncompressed bytes at an offset of the compressed stream.
+ */
+class ResponseCompression {
+
+    private static final String GZIP = "gzip";
+    private static final String GZIP_ETAG_SUFFIX = "-" + GZIP;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int GZIP_HEADER_SIZE = 10;
+    private static final int GZIP_TRAILER_SIZE = 8;
+
+    private final boolean enabled;
+    private final int level;
+    private final long minSize;
+    private final ProxyMetrics metrics;
+
+    ResponseCompression(boolean enabled, int level, long minSize, ProxyMetrics metrics) {
+        this.enabled = enabled;
+        this.level = level;
+        this.minSize = minSize;
+        this.metrics = metrics;
+    }
+
+    Response apply(ContainerRequestContext requestContext, Response response) {
+        if (!enabled || !(response.getEntity() instanceof StreamingOutput body) || !acceptsGzip(requestContext.getHeaderString(ACCEPT_ENCODING))) {
+            return response;
+        }
+        if (response.getHeaderString(CONTENT_ENCODING) != null || response.getHeaderString(CONTENT_RANGE) != null) {
+            return response;
+        }
+        if (isBelowMinSize(response.getHeaderString(CONTENT_LENGTH))) {
+            return response;
+        }
+        if (!isCompressible(response.getHeaderString(CONTENT_TYPE))) {
+            return response;
+        }
+
+        // the compressed bytes are not the ones of the backend representation: ranges of them cannot be requested from
+        // the backend, and a validator of the backend representation must not match them
+        return Response.fromResponse(response)
+                .entity(new GzipStreamingOutput(body))
+                .header(CONTENT_LENGTH, null)
+                .header(ACCEPT_RANGES, null)
+                // header() adds a value, the backend tag has to be removed first
+                .header(ETAG, null)
+                .header(ETAG, gzipEtag(response.getHeaderString(ETAG)))
+                .header(CONTENT_ENCODING, GZIP)
+                .header(VARY, ACCEPT_ENCODING)
+                .build();
+    }
+
+    /**
+     * Derives the entity tag of the compressed representation, e.g. {@code "abc"} becomes {@code "abc-gzip"}. A request
+     * conditioned on it never matches the backend entity, so it is answered with the full representation.
+     */
+    private String gzipEtag(String etag) {
+        if (etag == null || !etag.endsWith("\"")) {
+            return null;
+        }
+        return etag.substring(0, etag.length() - 1) + GZIP_ETAG_SUFFIX + "\"";
+    }
+
+    /**
+     * Whether the payload is known to be smaller than the threshold. A malformed length is treated as unknown.
+     */
+    private boolean isBelowMinSize(String contentLength) {
+        if (contentLength == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(contentLength.trim()) < minSize;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (var coding : acceptEncoding.split(",")) {
+            var parts = coding.trim().toLowerCase(Locale.ROOT).split(";");
+            var name = parts[0].trim();
+            if (name.equals(GZIP) || name.equals("*")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        var mediaType = contentType.toLowerCase(Locale.ROOT);
+        return mediaType.startsWith("text/") ||
+                mediaType.startsWith("application/json") ||
+                mediaType.startsWith("application/xml") ||
+                mediaType.startsWith("application/x-ndjson") ||
+                mediaType.startsWith("application/javascript") ||
+                mediaType.contains("+json") ||
+                mediaType.contains("+xml");
+    }
+
+    /**
+     * Compresses the payload with a {@link GzipOutputStream}, which measures the time spent in the {@link Deflater}
+     * separately from the time spent writing to the consumer.
+     */
+    private class GzipStreamingOutput implements StreamingOutput, Closeable {
+
+        private final StreamingOutput delegate;
+
+        GzipStreamingOutput(StreamingOutput delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(OutputStream output) throws IOException {
+            try {
+                var compressing = new GzipOutputStream(output, level);
+                try {
+                    delegate.write(compressing);
+                    compressing.finish();
+                } finally {
+                    compressing.end();
+                }
+            } finally {
+                // the delegate releases the backend resources when it is closed, even if it never got to write
+                close();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (delegate instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * A {@link GZIPOutputStream} timing its deflate calls. It is finished but never closed, since closing it would close
+     * the consumer output.
+     */
+    private class GzipOutputStream extends GZIPOutputStream {
+
+        private long deflateTime;
+        private boolean ended;
+
+        GzipOutputStream(OutputStream output, int level) throws IOException {
+            super(output, BUFFER_SIZE);
+            def.setLevel(level);
+        }
+
+        @Override
+        protected void deflate() throws IOException {
+            var start = System.nanoTime();
+            var length = def.deflate(buf, 0, buf.length);
+            deflateTime += System.nanoTime() - start;
+            if (length > 0) {
+                out.write(buf, 0, length);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            // finish deflates the last blocks itself instead of calling deflate(), it is timed as a whole
+            var start = System.nanoTime();
+            super.finish();
+            deflateTime += System.nanoTime() - start;
+            out.flush();
+        }
+
+        /**
+         * Records the compression metrics and releases the deflater.
+         */
+        void end() {
+            if (!ended) {
+                ended = true;
+                metrics.compression(def.getBytesRead(), GZIP_HEADER_SIZE + def.getBytesWritten() + GZIP_TRAILER_SIZE, deflateTime);
+                def.end();
+            }
+        }
+    }
+}
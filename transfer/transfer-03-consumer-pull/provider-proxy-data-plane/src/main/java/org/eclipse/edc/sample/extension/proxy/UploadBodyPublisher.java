@@ -0,0 +1,72 @@
+/*
+ *  Copyright (c) 2026 Contributors to the Eclipse Foundation
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Contributors to the Eclipse Foundation - initial API and implementation
+ *
+ */
+
+package org.eclipse.edc.sample.extension.proxy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publishes a consumer request body to the backend client. The body is read on the streaming executor, never on the
+ * http client threads: reading it blocks until the consumer sends more data, and the client threads are needed to
+ * deliver the responses of the other transfers. Reading pauses while the backend does not demand more data.
+ */
+class UploadBodyPublisher implements Flow.Publisher<ByteBuffer> {
+
+    private static final int MAX_BUFFERED_CHUNKS = 4;
+
+    private final InputStream body;
+    private final int bufferSize;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    UploadBodyPublisher(InputStream body, int bufferSize, Executor executor) {
+        this.body = body;
+        this.bufferSize = bufferSize;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        var publisher = new SubmissionPublisher<ByteBuffer>(executor, MAX_BUFFERED_CHUNKS);
+        publisher.subscribe(subscriber);
+        if (!subscribed.compareAndSet(false, true)) {
+            publisher.closeExceptionally(new IllegalStateException("The request body can only be sent once"));
+            return;
+        }
+        executor.execute(() -> pump(publisher));
+    }
+
+    private void pump(SubmissionPublisher<ByteBuffer> publisher) {
+        try {
+            int read;
+            do {
+                var buffer = new byte[bufferSize];
+                read = body.read(buffer);
+                if (read > 0) {
+                    // blocks while the backend has not consumed the previous chunks
+                    publisher.submit(ByteBuffer.wrap(buffer, 0, read));
+                }
+            } while (read != -1 && publisher.hasSubscribers());
+            publisher.close();
+        } catch (IOException | RuntimeException e) {
+            publisher.closeExceptionally(e);
+        }
+    }
+}